@@ -0,0 +1,108 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingEntity;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Заполняет H2 пользователями, вещами и бронями. Пользователи и вещи создаются через сервисы,
+ * чтобы прогрелись кэши и поисковый индекс, брони пишутся пачками напрямую в репозиторий.
+ */
+final class BenchmarkDataset {
+	static final String[] WORDS = {"дрель", "пила", "лестница", "палатка", "велосипед", "шуруповерт", "перфоратор", "самокат"};
+
+	private static final int BOOKINGS_CHUNK = 1_000;
+
+	private final List<Long> userIds = new ArrayList<>();
+	private final List<Long> itemIds = new ArrayList<>();
+
+	private BenchmarkDataset() {
+	}
+
+	static BenchmarkDataset seed(ConfigurableApplicationContext context, int users, int itemsPerUser, int bookingsPerItem) {
+		var dataset = new BenchmarkDataset();
+		var random = new Random(42);
+
+		var userService = context.getBean(UserService.class);
+		var itemService = context.getBean(ItemService.class);
+
+		for (int u = 0; u < users; u++) {
+			var user = userService.updateUser(UserDto
+					.builder()
+					.name("user" + u)
+					.email("user" + u + "@mail.ru")
+					.build());
+
+			dataset.userIds.add(user.id());
+
+			for (int i = 0; i < itemsPerUser; i++) {
+				var word = WORDS[random.nextInt(WORDS.length)];
+				var item = itemService.createItem(ItemDto
+						.builder()
+						.name(word + " " + i)
+						.description(word + " пользователя " + u)
+						.available(random.nextInt(10) != 0)
+						.build(), user.id());
+
+				dataset.itemIds.add(item.id());
+			}
+		}
+
+		var userRepository = context.getBean(UserRepository.class);
+		var itemRepository = context.getBean(ItemRepository.class);
+		var bookingRepository = context.getBean(BookingRepository.class);
+		var transactionTemplate = context.getBean(TransactionTemplate.class);
+		var statuses = BookingStatus.values();
+		// половина броней в прошлом, половина в будущем
+		var origin = LocalDateTime.now().minusDays(bookingsPerItem);
+
+		var chunk = new ArrayList<BookingEntity>(BOOKINGS_CHUNK);
+
+		for (var itemId : dataset.itemIds) {
+			for (int b = 0; b < bookingsPerItem; b++) {
+				var start = origin.plusDays(2L * b).plusHours(random.nextInt(12));
+
+				var booking = new BookingEntity();
+				booking.setItem(itemRepository.getReferenceById(itemId));
+				booking.setBooker(userRepository.getReferenceById(dataset.randomUserId(random)));
+				booking.setStatus(statuses[random.nextInt(statuses.length)]);
+				booking.setStart(start);
+				booking.setEnd(start.plusHours(12 + random.nextInt(24)));
+
+				chunk.add(booking);
+
+				if (chunk.size() == BOOKINGS_CHUNK) {
+					var toSave = List.copyOf(chunk);
+					transactionTemplate.executeWithoutResult(status -> bookingRepository.saveAll(toSave));
+					chunk.clear();
+				}
+			}
+		}
+
+		if (!chunk.isEmpty())
+			transactionTemplate.executeWithoutResult(status -> bookingRepository.saveAll(chunk));
+
+		return dataset;
+	}
+
+	long randomUserId(Random random) {
+		return userIds.get(random.nextInt(userIds.size()));
+	}
+
+	long randomItemId(Random random) {
+		return itemIds.get(random.nextInt(itemIds.size()));
+	}
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import java.sql.Timestamp;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Прежняя обработка дат брони (SimpleDateFormat + Timestamp) против java.time.
+ * Смотреть стоит на gc.alloc.rate.norm при запуске с -prof gc.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateHandlingBenchmark {
+	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(BookingDto.DATE_TIME_PATTERN);
+
+	private final SimpleDateFormat legacyFormat = new SimpleDateFormat(BookingDto.DATE_TIME_PATTERN);
+	private final String text = "2030-01-01T10:15:30";
+	private final Timestamp timestamp = Timestamp.valueOf("2030-01-01 10:15:30");
+	private final LocalDateTime localDateTime = LocalDateTime.of(2030, 1, 1, 10, 15, 30);
+
+	@Benchmark
+	public Timestamp legacyParse() throws ParseException {
+		return Timestamp.from(legacyFormat.parse(text).toInstant());
+	}
+
+	@Benchmark
+	public String legacyFormat() {
+		return legacyFormat.format(timestamp);
+	}
+
+	@Benchmark
+	public LocalDateTime javaTimeParse() {
+		return LocalDateTime.parse(text, FORMATTER);
+	}
+
+	@Benchmark
+	public String javaTimeFormat() {
+		return FORMATTER.format(localDateTime);
+	}
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Цена логирования HTTP на запрос. Режимы:
+ * off - Logbook выключен уровнем логгера;
+ * trace - прежний режим разработки: каждый обмен с телами и трассировка сервисов пишутся синхронно;
+ * prod - профиль prod: выборка обменов и асинхронный аппендер.
+ * Консоль форка перенаправляется в файл, чтобы журнал не смешивался с выводом JMH.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class HttpLoggingBenchmark {
+	@Param({"off", "trace", "prod"})
+	private String mode;
+
+	private ConfigurableApplicationContext context;
+	private HttpClient client;
+	private HttpRequest getItem;
+	private HttpRequest postItem;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		System.setOut(new PrintStream(new FileOutputStream("target/jmh-http-logging-" + mode + ".log"), false, StandardCharsets.UTF_8));
+
+		var args = new ArrayList<>(List.of(
+				"--server.port=0",
+				"--spring.main.banner-mode=off"));
+
+		switch (mode) {
+			case "off" -> args.add("--logging.level.org.zalando.logbook=INFO");
+			case "trace" -> {
+				args.add("--logging.level.org.zalando.logbook=TRACE");
+				args.add("--logging.level.ru.practicum.shareit=TRACE");
+			}
+			case "prod" -> args.add("--spring.profiles.active=prod");
+			default -> throw new IllegalArgumentException(mode);
+		}
+
+		context = new SpringApplicationBuilder(ShareItApp.class).run(args.toArray(String[]::new));
+
+		var owner = context.getBean(UserService.class).updateUser(UserDto
+				.builder()
+				.name("owner")
+				.email("owner@mail.ru")
+				.build());
+		var item = context.getBean(ItemService.class).createItem(ItemDto
+				.builder()
+				.name("Дрель")
+				.description("Ударная дрель с набором сверл")
+				.available(true)
+				.build(), owner.id());
+
+		var baseUri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		getItem = HttpRequest.newBuilder(URI.create(baseUri + "/items/" + item.id()))
+				.header("X-Sharer-User-Id", String.valueOf(owner.id()))
+				.GET()
+				.build();
+		postItem = HttpRequest.newBuilder(URI.create(baseUri + "/items"))
+				.header("X-Sharer-User-Id", String.valueOf(owner.id()))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(
+						"{\"name\": \"Пила\", \"description\": \"Ручная пила по дереву\", \"available\": true}"))
+				.build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		client.close();
+		context.close();
+	}
+
+	@Benchmark
+	public String getItem() throws IOException, InterruptedException {
+		return client.send(getItem, HttpResponse.BodyHandlers.ofString()).body();
+	}
+
+	@Benchmark
+	public String postItem() throws IOException, InterruptedException {
+		return client.send(postItem, HttpResponse.BodyHandlers.ofString()).body();
+	}
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.storage.BookingEntity;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.storage.ItemEntity;
+import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.storage.UserEntity;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг одной брони, вещи и пользователя без обращения к БД.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+	private final BookingMapper bookingMapper = new BookingMapper();
+	private final ItemMapper itemMapper = new ItemMapper();
+	private final UserMapper userMapper = new UserMapper();
+
+	private UserEntity userEntity;
+	private ItemEntity itemEntity;
+	private BookingEntity bookingEntity;
+	private UserDto userDto;
+	private ItemDto itemDto;
+	private BookingDto bookingDto;
+
+	@Setup
+	public void setUp() {
+		userEntity = new UserEntity();
+		userEntity.setId(1L);
+		userEntity.setName("Иван");
+		userEntity.setEmail("ivan@mail.ru");
+
+		itemEntity = new ItemEntity();
+		itemEntity.setId(1L);
+		itemEntity.setOwner(userEntity);
+		itemEntity.setName("Дрель");
+		itemEntity.setDescription("Аккумуляторная дрель");
+		itemEntity.setAvailable(true);
+
+		var start = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+		bookingEntity = new BookingEntity();
+		bookingEntity.setId(1L);
+		bookingEntity.setBooker(userEntity);
+		bookingEntity.setItem(itemEntity);
+		bookingEntity.setStatus(BookingStatus.APPROVED);
+		bookingEntity.setStart(start);
+		bookingEntity.setEnd(start.plusDays(1));
+
+		userDto = userMapper.toDto(userEntity);
+		itemDto = itemMapper.toDto(itemEntity);
+		bookingDto = bookingMapper.toDto(bookingEntity, userDto, itemDto);
+	}
+
+	@Benchmark
+	public BookingDto bookingToDto() {
+		return bookingMapper.toDto(bookingEntity, userDto, itemDto);
+	}
+
+	@Benchmark
+	public BookingEntity bookingToEntity() {
+		return bookingMapper.toEntity(bookingDto, userEntity, itemEntity);
+	}
+
+	@Benchmark
+	public ItemDto itemToDto() {
+		return itemMapper.toDto(itemEntity);
+	}
+
+	@Benchmark
+	public UserDto userToDto() {
+		return userMapper.toDto(userEntity);
+	}
+
+	@Benchmark
+	public UserEntity userToEntity() {
+		return userMapper.toEntity(userDto);
+	}
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.BookingPage;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingStatusRequestDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.tool.KeysetCursor;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Списочные методы сервисов на заполненной H2.
+ * Размер набора задается параметрами, по умолчанию 50 000 броней.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class ServiceBenchmark {
+	private static final int PAGE_SIZE = 20;
+
+	@Param("1000")
+	private int users;
+
+	@Param("5")
+	private int itemsPerUser;
+
+	@Param("10")
+	private int bookingsPerItem;
+
+	private ConfigurableApplicationContext context;
+	private BookingService bookingService;
+	private ItemService itemService;
+	private BenchmarkDataset dataset;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(ShareItApp.class)
+				.web(WebApplicationType.NONE)
+				.properties(
+						"spring.main.banner-mode=off",
+						"logging.level.root=WARN",
+						"logging.level.ru.practicum.shareit=WARN")
+				.run();
+
+		bookingService = context.getBean(BookingService.class);
+		itemService = context.getBean(ItemService.class);
+		dataset = BenchmarkDataset.seed(context, users, itemsPerUser, bookingsPerItem);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@State(Scope.Thread)
+	public static class Caller {
+		final Random random = new Random();
+	}
+
+	@Benchmark
+	public BookingPage bookerPage(Caller caller) {
+		return bookingService.getItemsForUserId(
+				BookingStatusRequestDto.ALL,
+				dataset.randomUserId(caller.random),
+				KeysetCursor.first(),
+				PAGE_SIZE);
+	}
+
+	@Benchmark
+	public BookingPage ownerPastPage(Caller caller) {
+		return bookingService.getItemsForItemOwnerId(
+				BookingStatusRequestDto.PAST,
+				dataset.randomUserId(caller.random),
+				KeysetCursor.first(),
+				PAGE_SIZE);
+	}
+
+	@Benchmark
+	public List<ItemDto> ownerItems(Caller caller) {
+		return itemService.getItems(dataset.randomUserId(caller.random));
+	}
+
+	@Benchmark
+	public List<ItemDto> search(Caller caller) {
+		var word = BenchmarkDataset.WORDS[caller.random.nextInt(BenchmarkDataset.WORDS.length)];
+
+		return itemService.findFreeItemsByText(word, true, 0, PAGE_SIZE);
+	}
+
+	@Benchmark
+	public ItemAvailabilityDto availability(Caller caller) {
+		return itemService.getAvailability(dataset.randomItemId(caller.random), null, null);
+	}
+}
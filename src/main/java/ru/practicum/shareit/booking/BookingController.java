@@ -1,17 +1,40 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusRequestDto;
+import ru.practicum.shareit.booking.stream.BookingEventStream;
+import ru.practicum.shareit.tool.ImportReport;
+import ru.practicum.shareit.tool.JsonArrayStream;
+import ru.practicum.shareit.tool.KeysetCursor;
+import ru.practicum.shareit.tool.RowFormat;
+import ru.practicum.shareit.tool.RowReader;
+import ru.practicum.shareit.tool.RowWriter;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
 public class BookingController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final List<String> EXPORT_COLUMNS = List.of("id", "itemId", "booker.id", "status", "start", "end");
+
     private final BookingService bookingService;
+    private final BookingEventStream bookingEventStream;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     @GetMapping("/{id}")
     public BookingDto getItem(
@@ -21,15 +44,43 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getItemsForUserId(
-            @RequestHeader("X-Sharer-User-Id") long userId) {
-        return bookingService.getItemsForUserId(userId);
+    public ResponseEntity<StreamingResponseBody> getItemsForUserId(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "ALL") BookingStatusRequestDto state) {
+        return toResponse(bookingService.streamItemsForUserId(state, userId));
+    }
+
+    @GetMapping(params = "size")
+    public ResponseEntity<List<BookingDto>> getItemsForUserId(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "ALL") BookingStatusRequestDto state,
+            @RequestParam(required = false) String after,
+            @RequestParam int size) {
+        return toResponse(bookingService.getItemsForUserId(state, userId, KeysetCursor.decode(after), size));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getItemsForItemOwnerId(
-            @RequestHeader("X-Sharer-User-Id") long ownerId) {
-        return bookingService.getItemsForItemOwnerId(ownerId);
+    public ResponseEntity<StreamingResponseBody> getItemsForItemOwnerId(
+            @RequestHeader("X-Sharer-User-Id") long ownerId,
+            @RequestParam(defaultValue = "ALL") BookingStatusRequestDto state) {
+        return toResponse(bookingService.streamItemsForItemOwnerId(state, ownerId));
+    }
+
+    @GetMapping(path = "/owner", params = "size")
+    public ResponseEntity<List<BookingDto>> getItemsForItemOwnerId(
+            @RequestHeader("X-Sharer-User-Id") long ownerId,
+            @RequestParam(defaultValue = "ALL") BookingStatusRequestDto state,
+            @RequestParam(required = false) String after,
+            @RequestParam int size) {
+        return toResponse(bookingService.getItemsForItemOwnerId(state, ownerId, KeysetCursor.decode(after), size));
+    }
+
+    /**
+     * Изменения статусов броней пользователя как владельца и как арендатора вместо опроса списков.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader("X-Sharer-User-Id") long userId) {
+        return bookingEventStream.open(bookingService.subscribe(userId));
     }
 
     @PostMapping
@@ -39,6 +90,45 @@ public class BookingController {
         return bookingService.createBooking(bookingDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingDto> postItems(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestBody List<@Valid BookingDto> bookingDtos) {
+        return bookingService.createBookings(bookingDtos, userId);
+    }
+
+    @PostMapping(path = "/import", consumes = {RowFormat.NDJSON_VALUE, RowFormat.CSV_VALUE})
+    public ImportReport importBookings(
+            @RequestHeader("X-Sharer-User-Id") long ownerId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        var rows = RowReader.read(
+                body,
+                RowFormat.of(MediaType.parseMediaType(contentType)),
+                objectMapper,
+                validator,
+                BookingDto.class);
+
+        return bookingService.importBookings(rows, ownerId);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestHeader("X-Sharer-User-Id") long ownerId,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        var rowFormat = RowFormat.of(format);
+        var export = bookingService.exportBookings(ownerId);
+
+        return ResponseEntity
+                .ok()
+                .contentType(rowFormat.mediaType())
+                .body(outputStream -> {
+                    var writer = new RowWriter(outputStream, rowFormat, objectMapper, EXPORT_COLUMNS);
+                    export.accept(writer::write);
+                    writer.flush();
+                });
+    }
+
     @PatchMapping("/{id}")
     public BookingDto patchItem(
             @PathVariable long id,
@@ -46,4 +136,19 @@ public class BookingController {
             @RequestHeader("X-Sharer-User-Id") long userId) {
         return bookingService.setBookingStatus(id, approved, userId);
     }
+
+    private ResponseEntity<StreamingResponseBody> toResponse(Stream<BookingDto> bookings) {
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonArrayStream.of(objectMapper, bookings));
+    }
+
+    private ResponseEntity<List<BookingDto>> toResponse(BookingPage page) {
+        var response = ResponseEntity.ok();
+
+        page.next().ifPresent(cursor -> response.header(NEXT_CURSOR_HEADER, cursor.encode()));
+
+        return response.body(page.bookings());
+    }
 }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.tool.KeysetCursor;
+
+import java.util.List;
+import java.util.Optional;
+
+public record BookingPage(
+        List<BookingDto> bookings,
+        Optional<KeysetCursor> next
+) { }
@@ -2,32 +2,67 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityIndex;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingStatusRequestDto;
 import ru.practicum.shareit.booking.storage.BookingEntity;
+import ru.practicum.shareit.booking.stream.BookingEventHub;
+import ru.practicum.shareit.booking.stream.BookingSubscription;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.NotValidException;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.item.storage.ItemEntity;
+import ru.practicum.shareit.outbox.OutboxPublisher;
+import ru.practicum.shareit.tool.ImportReport;
+import ru.practicum.shareit.tool.KeysetCursor;
+import ru.practicum.shareit.tool.RowReader.Row;
+import ru.practicum.shareit.tool.StripedLocks;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.UserStorage;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.storage.UserEntity;
 
-import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class BookingService {
+    private static final int STREAM_PAGE_SIZE = 500;
+    private static final int ITEM_LOCK_STRIPES = 256;
+    private static final int BATCH_MAX_SIZE = 10_000;
+    private static final int IMPORT_CHUNK_SIZE = 500;
+
     private final ItemStorage itemStorage;
     private final UserStorage userStorage;
     private final BookingStorage bookingStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final OutboxPublisher outboxPublisher;
+    private final BookingEventHub bookingEventHub;
+    private final StripedLocks itemLocks = new StripedLocks(ITEM_LOCK_STRIPES);
     private final BookingMapper bookingMapper = new BookingMapper();
     private final UserMapper userMapper = new UserMapper();
     private final ItemMapper itemMapper = new ItemMapper();
 
+    @Transactional(readOnly = true)
     public BookingDto getBooking(long bookingId, long userId) {
-        var userEntity = userStorage.getUser(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
 
         var bookingEntity = bookingStorage.getBooking(bookingId)
                 .orElseThrow(() -> new NotFoundException("Бронь не найдена"));
@@ -36,112 +71,462 @@ public class BookingService {
             throw new NotValidException("Данные о бронировании может получить заказчик или владелец");
         }
 
+        return toDto(bookingEntity);
+    }
+
+    @Transactional(readOnly = true)
+    public BookingPage getItemsForUserId(BookingStatusRequestDto state, long userId, KeysetCursor after, int size) {
+        var userEntity = userStorage.getUser(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+
+        checkPageSize(size);
+
+        var userDto = userMapper.toDto(userEntity);
+        var bookingEntities = bookerPages(state, userId).load(after, size);
+
+        return toPage(bookingEntities, size, i -> bookingMapper.toDto(i, userDto, itemMapper.toDto(i.getItem())));
+    }
+
+    public Stream<BookingDto> streamItemsForUserId(BookingStatusRequestDto state, long userId) {
+        var userEntity = userStorage.getUser(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+
+        var userDto = userMapper.toDto(userEntity);
+
+        return streamPages(bookerPages(state, userId))
+                .map(i -> bookingMapper.toDto(i, userDto, itemMapper.toDto(i.getItem())));
+    }
+
+    @Transactional(readOnly = true)
+    public BookingPage getItemsForItemOwnerId(BookingStatusRequestDto state, long ownerId, KeysetCursor after, int size) {
+        if (!userStorage.existsById(ownerId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
+
+        checkPageSize(size);
+
+        var bookingEntities = ownerPages(state, ownerId).load(after, size);
+
+        return toPage(bookingEntities, size, this::toDto);
+    }
+
+    public Stream<BookingDto> streamItemsForItemOwnerId(BookingStatusRequestDto state, long ownerId) {
+        if (!userStorage.existsById(ownerId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
+
+        return streamPages(ownerPages(state, ownerId))
+                .map(this::toDto);
+    }
+
+    /**
+     * Транзакция открывается внутри, уже под блокировкой вещи, поэтому метод не помечен @Transactional.
+     */
+    public BookingDto createBooking(BookingDto bookingDto, long userId) {
+        var userEntity = userStorage.getUser(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        var itemEntity = getAvailableItem(bookingDto.itemId());
+        var bookingEntity = toNewBooking(bookingDto, userEntity, itemEntity);
+
+        // занятость по календарю - только подсказка: он может не знать изменений других экземпляров,
+        // поэтому отказ подтверждается по БД, а окончательно решает проверка под блокировкой
+        if (!itemAvailabilityIndex.isFree(itemEntity.getId(), bookingEntity.getStart(), bookingEntity.getEnd())) {
+            if (bookingStorage.existsOverlappingBooking(
+                    itemEntity.getId(),
+                    bookingEntity.getStart(),
+                    bookingEntity.getEnd())) {
+                throw new NotValidException("Вещь уже забронирована на это время");
+            }
+
+            itemAvailabilityIndex.invalidate(itemEntity.getId());
+        }
+
+        var lock = itemLocks.get(itemEntity.getId());
+        lock.lock();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                itemStorage.lockItem(itemEntity.getId());
+
+                if (bookingStorage.existsOverlappingBooking(
+                        itemEntity.getId(),
+                        bookingEntity.getStart(),
+                        bookingEntity.getEnd())) {
+                    throw new NotValidException("Вещь уже забронирована на это время");
+                }
+
+                bookingStorage.updateBooking(bookingEntity);
+            });
+        } finally {
+            lock.unlock();
+        }
+
         return bookingMapper.toDto(
                 bookingEntity,
                 userMapper.toDto(userEntity),
-                itemMapper.toDto(bookingEntity.getItem()));
+                itemMapper.toDto(itemEntity));
     }
 
-    public List<BookingDto> getItemsForUserId(long userId) {
-        return getItemsForUserId(BookingStatusRequestDto.ALL, userId);
-    }
+    /**
+     * Создает все брони пакета или ни одной.
+     */
+    public List<BookingDto> createBookings(List<BookingDto> bookingDtos, long userId) {
+        if (bookingDtos.size() > BATCH_MAX_SIZE) {
+            throw new NotValidException("В пакете больше " + BATCH_MAX_SIZE + " записей");
+        }
 
-    public List<BookingDto> getItemsForUserId(BookingStatusRequestDto state, long userId) {
         var userEntity = userStorage.getUser(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
 
-        List<BookingEntity> bookingEntities = switch (state) {
-            case ALL, CURRENT, PAST, FUTURE -> bookingStorage.findBookingsByBookerId(userId);
-            case WAITING ->  bookingStorage.findBookingsByBookerId(userId, BookingStatus.WAITING);
-            case REJECTED ->  bookingStorage.findBookingsByBookerId(userId, BookingStatus.REJECTED);
-            case APPROVED ->  bookingStorage.findBookingsByBookerId(userId, BookingStatus.APPROVED);
-            default -> List.of();
-        };
+        var itemEntities = new HashMap<Long, ItemEntity>();
+        var bookingEntities = new ArrayList<BookingEntity>(bookingDtos.size());
+
+        for (var bookingDto : bookingDtos) {
+            var itemEntity = itemEntities.computeIfAbsent(bookingDto.itemId(), this::getAvailableItem);
+
+            bookingEntities.add(toNewBooking(bookingDto, userEntity, itemEntity));
+        }
+
+        saveNewBookings(bookingEntities);
+
+        var userDto = userMapper.toDto(userEntity);
 
         return bookingEntities
                 .stream()
-                .map(i -> bookingMapper.toDto(
-                        i,
-                        userMapper.toDto(userEntity),
-                        itemMapper.toDto(i.getItem())))
+                .map(b -> bookingMapper.toDto(b, userDto, itemMapper.toDto(b.getItem())))
                 .toList();
     }
 
-    public List<BookingDto> getItemsForItemOwnerId(long userId) {
-        return getItemsForItemOwnerId(BookingStatusRequestDto.ALL, userId);
+    /**
+     * Загружает брони вещей владельца из потока строк пачками по IMPORT_CHUNK_SIZE, каждая пачка
+     * в своей транзакции. Если пачка пересекается с уже сохраненными бронями, она сохраняется
+     * построчно, и в отчет попадают только конфликтующие строки.
+     */
+    public ImportReport importBookings(Stream<Row<BookingDto>> rows, long ownerId) {
+        if (!userStorage.existsById(ownerId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
+
+        var report = new ImportReport();
+        var chunk = new ArrayList<ImportedBooking>(IMPORT_CHUNK_SIZE);
+
+        try (rows) {
+            var iterator = rows.iterator();
+
+            while (iterator.hasNext()) {
+                var row = iterator.next();
+
+                if (!row.isValid()) {
+                    report.reject(row.line(), row.error());
+                    continue;
+                }
+
+                try {
+                    chunk.add(new ImportedBooking(row.line(), toImportedBooking(row.value(), ownerId)));
+                } catch (NotFoundException | NotValidException e) {
+                    report.reject(row.line(), e.getMessage());
+                }
+
+                if (chunk.size() == IMPORT_CHUNK_SIZE)
+                    saveChunk(chunk, report);
+            }
+        }
+
+        saveChunk(chunk, report);
+
+        return report;
     }
 
-    public List<BookingDto> getItemsForItemOwnerId(BookingStatusRequestDto state, long ownerId) {
+    /**
+     * Проверяет владельца сразу, а брони читает курсором при вызове выгрузки,
+     * уже во время записи ответа.
+     */
+    public Consumer<Consumer<BookingDto>> exportBookings(long ownerId) {
         if (!userStorage.existsById(ownerId)) {
             throw new NotFoundException("Пользователь не найден");
         }
 
-        List<BookingEntity> bookingEntities = switch (state) {
-            case ALL, CURRENT, PAST, FUTURE -> bookingStorage.findBookingsByOwnerId(ownerId);
-            case WAITING ->  bookingStorage.findBookingsByOwnerId(ownerId, BookingStatus.WAITING);
-            case REJECTED ->  bookingStorage.findBookingsByOwnerId(ownerId, BookingStatus.REJECTED);
-            case APPROVED ->  bookingStorage.findBookingsByOwnerId(ownerId, BookingStatus.APPROVED);
-            default -> List.of();
-        };
+        var transaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        transaction.setReadOnly(true);
 
-        return bookingEntities
+        return sink -> transaction.executeWithoutResult(status ->
+                bookingStorage.forEachBookingOfOwner(ownerId, b -> sink.accept(bookingMapper.toDto(
+                        b,
+                        UserDto.builder().id(b.getBooker().getId()).build(),
+                        null))));
+    }
+
+    /**
+     * Решение принимается только по ожидающей брони: она занимает вещь с момента создания,
+     * поэтому пересекающихся с ней активных броней нет. Смена статуса идет под той же блокировкой
+     * вещи, что и создание брони, иначе одобрение могло бы затереть параллельный отказ.
+     */
+    public BookingDto setBookingStatus(long id, boolean approved, long userId) {
+        if (!userStorage.existsById(userId)) {
+            throw new NotValidException("Пользователь не найден");
+        }
+
+        var itemId = bookingStorage.getBooking(id)
+                .orElseThrow(() -> new NotFoundException("Бронь не найдена"))
+                .getItem()
+                .getId();
+
+        var lock = itemLocks.get(itemId);
+        lock.lock();
+
+        try {
+            return transactionTemplate.execute(status -> {
+                itemStorage.lockItem(itemId);
+
+                var bookingEntity = bookingStorage.getBooking(id)
+                        .orElseThrow(() -> new NotFoundException("Бронь не найдена"));
+
+                var itemEntity = bookingEntity.getItem();
+
+                if (itemEntity.getOwner().getId() != userId) {
+                    throw new NotValidException("Подтвердить бронь может только владелец");
+                }
+
+                if (bookingEntity.getStatus() != BookingStatus.WAITING) {
+                    throw new NotValidException("Решение по брони уже принято");
+                }
+
+                if (approved)
+                    bookingEntity.setStatus(BookingStatus.APPROVED);
+                else
+                    bookingEntity.setStatus(BookingStatus.REJECTED);
+
+                bookingStorage.updateBooking(bookingEntity);
+
+                outboxPublisher.publish(
+                        BookingStatusChanged.TYPE,
+                        bookingEntity.getId(),
+                        new BookingStatusChanged(
+                                bookingEntity.getId(),
+                                itemEntity.getId(),
+                                userId,
+                                bookingEntity.getBooker().getId(),
+                                bookingEntity.getStatus()));
+
+                var bookingDto = bookingMapper.toDto(
+                        bookingEntity,
+                        userMapper.toDto(bookingEntity.getBooker()),
+                        itemMapper.toDto(itemEntity));
+
+                bookingEventHub.onStatusChanged(bookingDto, userId);
+
+                return bookingDto;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Подписка на изменения статусов броней, где пользователь владелец вещи или арендатор.
+     */
+    public BookingSubscription subscribe(long userId) {
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
+
+        return bookingEventHub.subscribe(userId);
+    }
+
+    /**
+     * Сохраняет новые брони в одной транзакции. Вещи с активными бронями блокируются
+     * в порядке id, пересечения проверяются одним запросом на вещь.
+     */
+    private void saveNewBookings(List<BookingEntity> bookingEntities) {
+        var activeByItemId = bookingEntities
                 .stream()
-                .map(i -> bookingMapper.toDto(
-                        i,
-                        userMapper.toDto(i.getBooker()),
-                        itemMapper.toDto(i.getItem())))
-                .toList();
+                .filter(b -> BookingStatus.ACTIVE.contains(b.getStatus()))
+                .collect(Collectors.groupingBy(b -> b.getItem().getId(), TreeMap::new, Collectors.toList()));
+
+        var locks = itemLocks.getAll(activeByItemId.keySet());
+        locks.forEach(Lock::lock);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                activeByItemId.forEach((itemId, newBookings) -> {
+                    itemStorage.lockItem(itemId);
+                    checkNoOverlaps(itemId, newBookings);
+                });
+
+                bookingStorage.updateBookings(bookingEntities);
+            });
+        } finally {
+            locks.reversed().forEach(Lock::unlock);
+        }
     }
 
-    public BookingDto createBooking(BookingDto bookingDto, long userId) {
-        var userEntity = userStorage.getUser(userId)
+    private void saveChunk(List<ImportedBooking> chunk, ImportReport report) {
+        if (chunk.isEmpty())
+            return;
+
+        var bookings = List.copyOf(chunk);
+        chunk.clear();
+
+        try {
+            saveNewBookings(bookings.stream().map(ImportedBooking::entity).toList());
+            report.imported(bookings.size());
+        } catch (NotValidException e) {
+            for (var booking : bookings) {
+                try {
+                    saveNewBookings(List.of(booking.entity()));
+                    report.imported(1);
+                } catch (NotValidException rowException) {
+                    report.reject(booking.line(), rowException.getMessage());
+                }
+            }
+        }
+    }
+
+    private BookingEntity toImportedBooking(BookingDto bookingDto, long ownerId) {
+        if (bookingDto.itemId() == null) {
+            throw new NotValidException("Не указана вещь");
+        }
+
+        if (bookingDto.booker() == null || bookingDto.booker().id() == null) {
+            throw new NotValidException("Не указан арендатор");
+        }
+
+        var bookerEntity = userStorage.getUser(bookingDto.booker().id())
                 .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
         var itemEntity = itemStorage.getItem(bookingDto.itemId())
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
 
+        if (itemEntity.getOwner().getId() != ownerId) {
+            throw new NotValidException("Загрузить бронь может только владелец вещи");
+        }
+
+        var bookingEntity = toNewBooking(bookingDto.toBuilder().id(null).build(), bookerEntity, itemEntity);
+
+        if (bookingDto.status() != null)
+            bookingEntity.setStatus(bookingDto.status());
+
+        return bookingEntity;
+    }
+
+    private ItemEntity getAvailableItem(long itemId) {
+        var itemEntity = itemStorage.getItem(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
+
         if (!itemEntity.isAvailable()) {
             throw new NotValidException("Вещь не доступна к бронированию");
         }
 
-        try {
-            var bookingEntity = bookingMapper.toEntity(bookingDto, userEntity, itemEntity);
-            bookingEntity.setStatus(BookingStatus.WAITING);
+        return itemEntity;
+    }
 
-            bookingStorage.updateBooking(bookingEntity);
+    private BookingEntity toNewBooking(BookingDto bookingDto, UserEntity userEntity, ItemEntity itemEntity) {
+        var bookingEntity = bookingMapper.toEntity(bookingDto, userEntity, itemEntity);
 
-            return bookingMapper.toDto(
-                    bookingEntity,
-                    userMapper.toDto(userEntity),
-                    itemMapper.toDto(itemEntity));
-        } catch (ParseException e) {
-            throw new NotValidException("Произошла ошибка чтения данных");
+        if (!bookingEntity.getStart().isBefore(bookingEntity.getEnd())) {
+            throw new NotValidException("Начало брони должно быть раньше окончания");
         }
+
+        bookingEntity.setStatus(BookingStatus.WAITING);
+
+        return bookingEntity;
     }
 
-    public BookingDto setBookingStatus(long id, boolean approved, long userId) {
-        if (!userStorage.existsById(userId)) {
-            throw new NotValidException("Пользователь не найден");
-        }
+    /**
+     * Проверяет новые брони вещи на пересечение с уже активными и друг с другом.
+     * Все интервалы сортируются по началу; интервал конфликтует, если начинается раньше
+     * самого позднего окончания среди предыдущих интервалов, и хотя бы один из пары новый.
+     */
+    private void checkNoOverlaps(long itemId, List<BookingEntity> newBookings) {
+        var from = newBookings.stream().map(BookingEntity::getStart).min(Comparator.naturalOrder()).orElseThrow();
+        var to = newBookings.stream().map(BookingEntity::getEnd).max(Comparator.naturalOrder()).orElseThrow();
 
-        var bookingEntity = bookingStorage.getBooking(id)
-                .orElseThrow(() -> new NotFoundException("Бронь не найдена"));
+        var intervals = new ArrayList<BookingEntity>(bookingStorage.findOverlappingBookings(itemId, from, to));
+        intervals.addAll(newBookings);
+        intervals.sort(Comparator.comparing(BookingEntity::getStart));
 
-        var itemEntity = bookingEntity.getItem();
+        LocalDateTime maxEnd = null;
+        LocalDateTime maxNewEnd = null;
 
-        if (itemEntity.getOwner().getId() != userId) {
-            throw new NotValidException("Подтвердить бронь может только владелец");
-        }
+        for (var interval : intervals) {
+            var isNew = interval.getId() == null;
+            var start = interval.getStart();
 
-        if (approved)
-            bookingEntity.setStatus(BookingStatus.APPROVED);
-        else
-            bookingEntity.setStatus(BookingStatus.REJECTED);
+            if ((isNew && maxEnd != null && start.isBefore(maxEnd))
+                    || (!isNew && maxNewEnd != null && start.isBefore(maxNewEnd))) {
+                throw new NotValidException("Вещь уже забронирована на это время");
+            }
 
-        bookingStorage.updateBooking(bookingEntity);
+            if (maxEnd == null || interval.getEnd().isAfter(maxEnd))
+                maxEnd = interval.getEnd();
+            if (isNew && (maxNewEnd == null || interval.getEnd().isAfter(maxNewEnd)))
+                maxNewEnd = interval.getEnd();
+        }
+    }
 
+    private BookingDto toDto(BookingEntity entity) {
         return bookingMapper.toDto(
-                bookingEntity,
-                userMapper.toDto(bookingEntity.getBooker()),
-                itemMapper.toDto(itemEntity));
+                entity,
+                userMapper.toDto(entity.getBooker()),
+                itemMapper.toDto(entity.getItem()));
+    }
+
+    private void checkPageSize(int size) {
+        if (size <= 0) {
+            throw new NotValidException("Размер страницы должен быть больше нуля");
+        }
+    }
+
+    private BookingPage toPage(List<BookingEntity> entities, int size, Function<BookingEntity, BookingDto> mapper) {
+        var next = entities.size() < size
+                ? Optional.<KeysetCursor>empty()
+                : Optional.of(cursorAfter(entities.get(entities.size() - 1)));
+
+        return new BookingPage(entities.stream().map(mapper).toList(), next);
+    }
+
+    private static KeysetCursor cursorAfter(BookingEntity entity) {
+        return new KeysetCursor(entity.getStart(), entity.getId());
+    }
+
+    private PageLoader bookerPages(BookingStatusRequestDto state, long userId) {
+        return switch (state) {
+            case ALL -> (after, size) -> bookingStorage.findBookingsByBookerId(userId, after, size);
+            case CURRENT -> (after, size) -> bookingStorage.findCurrentBookingsByBookerId(userId, after, size);
+            case PAST -> (after, size) -> bookingStorage.findPastBookingsByBookerId(userId, after, size);
+            case FUTURE -> (after, size) -> bookingStorage.findFutureBookingsByBookerId(userId, after, size);
+            case WAITING -> (after, size) -> bookingStorage.findBookingsByBookerId(userId, BookingStatus.WAITING, after, size);
+            case REJECTED -> (after, size) -> bookingStorage.findBookingsByBookerId(userId, BookingStatus.REJECTED, after, size);
+            case APPROVED -> (after, size) -> bookingStorage.findBookingsByBookerId(userId, BookingStatus.APPROVED, after, size);
+        };
+    }
+
+    private PageLoader ownerPages(BookingStatusRequestDto state, long ownerId) {
+        return switch (state) {
+            case ALL -> (after, size) -> bookingStorage.findBookingsByOwnerId(ownerId, after, size);
+            case CURRENT -> (after, size) -> bookingStorage.findCurrentBookingsByOwnerId(ownerId, after, size);
+            case PAST -> (after, size) -> bookingStorage.findPastBookingsByOwnerId(ownerId, after, size);
+            case FUTURE -> (after, size) -> bookingStorage.findFutureBookingsByOwnerId(ownerId, after, size);
+            case WAITING -> (after, size) -> bookingStorage.findBookingsByOwnerId(ownerId, BookingStatus.WAITING, after, size);
+            case REJECTED -> (after, size) -> bookingStorage.findBookingsByOwnerId(ownerId, BookingStatus.REJECTED, after, size);
+            case APPROVED -> (after, size) -> bookingStorage.findBookingsByOwnerId(ownerId, BookingStatus.APPROVED, after, size);
+        };
+    }
+
+    private Stream<BookingEntity> streamPages(PageLoader pageLoader) {
+        return Stream.iterate(
+                        pageLoader.load(KeysetCursor.first(), STREAM_PAGE_SIZE),
+                        page -> !page.isEmpty(),
+                        page -> page.size() < STREAM_PAGE_SIZE
+                                ? List.of()
+                                : pageLoader.load(cursorAfter(page.get(page.size() - 1)), STREAM_PAGE_SIZE))
+                .flatMap(List::stream);
+    }
+
+    private record ImportedBooking(long line, BookingEntity entity) {
+    }
+
+    @FunctionalInterface
+    private interface PageLoader {
+        List<BookingEntity> load(KeysetCursor after, int size);
     }
 }
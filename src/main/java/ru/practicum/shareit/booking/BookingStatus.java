@@ -1,8 +1,15 @@
 package ru.practicum.shareit.booking;
 
+import java.util.Set;
+
 public enum BookingStatus {
     WAITING,
     APPROVED,
     REJECTED,
-    CANCELED
+    CANCELED;
+
+    /**
+     * Статусы, при которых бронь занимает вещь.
+     */
+    public static final Set<BookingStatus> ACTIVE = Set.of(WAITING, APPROVED);
 }
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking;
+
+/**
+ * Событие outbox о подтверждении или отклонении брони: уведомление владельцу и арендатору.
+ */
+public record BookingStatusChanged(
+        long bookingId,
+        long itemId,
+        long ownerId,
+        long bookerId,
+        BookingStatus status
+) {
+    public static final String TYPE = "BOOKING_STATUS_CHANGED";
+}
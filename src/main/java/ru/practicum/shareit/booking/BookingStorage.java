@@ -1,9 +1,13 @@
 package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.booking.storage.BookingEntity;
+import ru.practicum.shareit.tool.KeysetCursor;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookingStorage {
     Optional<BookingEntity> getBooking(long bookingId);
@@ -12,13 +16,39 @@ public interface BookingStorage {
 
     void updateBooking(BookingEntity entity);
 
-    List<BookingEntity> findBookingsByBookerId(long userId);
+    void updateBookings(Collection<BookingEntity> entities);
 
-    List<BookingEntity> findBookingsByBookerId(long userId, BookingStatus state);
+    List<BookingEntity> findBookingsByBookerId(long userId, KeysetCursor after, int size);
 
-    List<BookingEntity> findBookingsByOwnerId(long ownerId);
+    List<BookingEntity> findBookingsByBookerId(long userId, BookingStatus state, KeysetCursor after, int size);
 
-    List<BookingEntity> findBookingsByOwnerId(long userId, BookingStatus state);
+    List<BookingEntity> findCurrentBookingsByBookerId(long userId, KeysetCursor after, int size);
+
+    List<BookingEntity> findPastBookingsByBookerId(long userId, KeysetCursor after, int size);
+
+    List<BookingEntity> findFutureBookingsByBookerId(long userId, KeysetCursor after, int size);
+
+    List<BookingEntity> findBookingsByOwnerId(long ownerId, KeysetCursor after, int size);
+
+    List<BookingEntity> findBookingsByOwnerId(long ownerId, BookingStatus state, KeysetCursor after, int size);
+
+    List<BookingEntity> findCurrentBookingsByOwnerId(long ownerId, KeysetCursor after, int size);
+
+    List<BookingEntity> findPastBookingsByOwnerId(long ownerId, KeysetCursor after, int size);
+
+    List<BookingEntity> findFutureBookingsByOwnerId(long ownerId, KeysetCursor after, int size);
 
     boolean existsByBookerIdAndItemIdAndAfterEnd(long userId, long itemId);
+
+    boolean existsOverlappingBooking(long itemId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Активные брони вещи, пересекающиеся с [start, end).
+     */
+    List<BookingEntity> findOverlappingBookings(long itemId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Обходит брони вещей владельца в порядке id, не загружая их списком. Вызывается внутри транзакции.
+     */
+    void forEachBookingOfOwner(long ownerId, Consumer<BookingEntity> action);
 }
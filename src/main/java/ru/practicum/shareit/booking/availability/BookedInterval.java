@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.availability;
+
+import java.time.LocalDateTime;
+
+public record BookedInterval(
+        long bookingId,
+        LocalDateTime start,
+        LocalDateTime end
+) { }
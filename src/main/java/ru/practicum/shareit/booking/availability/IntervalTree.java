@@ -0,0 +1,224 @@
+package ru.practicum.shareit.booking.availability;
+
+import java.util.List;
+
+/**
+ * AVL-дерево полуинтервалов [start, end), упорядоченных по (start, id).
+ * Каждый узел хранит максимальный end своего поддерева, что дает поиск пересечения за O(log n).
+ * Не потокобезопасно.
+ */
+final class IntervalTree {
+    private Node root;
+
+    void insert(long id, long start, long end) {
+        root = insert(root, new Node(id, start, end));
+    }
+
+    void remove(long id, long start) {
+        root = remove(root, id, start);
+    }
+
+    boolean overlaps(long start, long end) {
+        var node = root;
+
+        while (node != null) {
+            if (node.start < end && node.end > start)
+                return true;
+
+            // если слева есть интервал, заканчивающийся после start, но не пересекающий запрос,
+            // то он начинается не раньше end, а значит и все правое поддерево тоже
+            node = node.left != null && node.left.maxEnd > start ? node.left : node.right;
+        }
+
+        return false;
+    }
+
+    void collect(long start, long end, List<long[]> result) {
+        collect(root, start, end, result);
+    }
+
+    long nextStartAfter(long date) {
+        var best = Long.MAX_VALUE;
+        var node = root;
+
+        while (node != null) {
+            if (node.start > date) {
+                best = node.start;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+
+        return best;
+    }
+
+    long lastEndBefore(long date) {
+        return lastEndBefore(root, date);
+    }
+
+    private static void collect(Node node, long start, long end, List<long[]> result) {
+        if (node == null || node.maxEnd <= start)
+            return;
+
+        collect(node.left, start, end, result);
+
+        if (node.start < end) {
+            if (node.end > start)
+                result.add(new long[]{node.id, node.start, node.end});
+
+            collect(node.right, start, end, result);
+        }
+    }
+
+    private static long lastEndBefore(Node node, long date) {
+        if (node == null)
+            return Long.MIN_VALUE;
+
+        if (node.maxEnd < date)
+            return node.maxEnd;
+
+        var best = lastEndBefore(node.left, date);
+
+        if (node.start < date) {
+            if (node.end < date)
+                best = Math.max(best, node.end);
+
+            best = Math.max(best, lastEndBefore(node.right, date));
+        }
+
+        return best;
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null)
+            return added;
+
+        if (compare(added.start, added.id, node) < 0)
+            node.left = insert(node.left, added);
+        else
+            node.right = insert(node.right, added);
+
+        return balance(node);
+    }
+
+    private static Node remove(Node node, long id, long start) {
+        if (node == null)
+            return null;
+
+        var compared = compare(start, id, node);
+
+        if (compared < 0) {
+            node.left = remove(node.left, id, start);
+        } else if (compared > 0) {
+            node.right = remove(node.right, id, start);
+        } else {
+            if (node.left == null)
+                return node.right;
+            if (node.right == null)
+                return node.left;
+
+            var successor = min(node.right);
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+
+        return balance(node);
+    }
+
+    private static Node min(Node node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+
+        return node;
+    }
+
+    private static Node removeMin(Node node) {
+        if (node.left == null)
+            return node.right;
+
+        node.left = removeMin(node.left);
+
+        return balance(node);
+    }
+
+    private static int compare(long start, long id, Node node) {
+        var compared = Long.compare(start, node.start);
+
+        return compared != 0 ? compared : Long.compare(id, node.id);
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+
+        var factor = height(node.left) - height(node.right);
+
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right))
+                node.left = rotateLeft(node.left);
+
+            return rotateRight(node);
+        }
+
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left))
+                node.right = rotateRight(node.right);
+
+            return rotateLeft(node);
+        }
+
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        var left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        var right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+
+        return right;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = Math.max(node.end, Math.max(maxEnd(node.left), maxEnd(node.right)));
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static long maxEnd(Node node) {
+        return node == null ? Long.MIN_VALUE : node.maxEnd;
+    }
+
+    private static final class Node {
+        private final long id;
+        private final long start;
+        private final long end;
+        private long maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        private Node(long id, long start, long end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.booking.availability;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingEntity;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.tool.AfterCommit;
+import ru.practicum.shareit.tool.PrimaryReads;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Календари занятости вещей. Календарь вещи загружается из БД при первом обращении
+ * и дальше поддерживается по сохранениям броней после коммита.
+ * Загрузка идет вне блокировок кэша: применение изменения после коммита выполняется,
+ * пока транзакция еще держит соединение, и не должно ждать потока, которому соединения не хватило.
+ * Изменения других экземпляров приложения сюда не приходят, поэтому календарь живет не дольше
+ * expireAfterWrite, а его занятость для новой брони перепроверяется по БД. Загрузка идет из основной БД:
+ * брони, которых еще нет на реплике, уже не придут в календарь после коммита.
+ */
+@Component
+public class ItemAvailabilityIndex {
+    private final BookingRepository bookingRepository;
+    private final PrimaryReads primaryReads;
+    private final Cache<Long, ItemCalendar> calendars;
+
+    public ItemAvailabilityIndex(
+            BookingRepository bookingRepository,
+            PrimaryReads primaryReads,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.cache.maximum-size:10000}") long maximumSize,
+            @Value("${shareit.cache.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.bookingRepository = bookingRepository;
+        this.primaryReads = primaryReads;
+        this.calendars = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, calendars, "calendars");
+    }
+
+    public boolean isFree(long itemId, LocalDateTime start, LocalDateTime end) {
+        return calendar(itemId).isFree(start, end);
+    }
+
+    public List<BookedInterval> getBookings(long itemId, LocalDateTime from, LocalDateTime to) {
+        return calendar(itemId).getBookings(from, to);
+    }
+
+    public Optional<LocalDateTime> getLastBookingEnd(long itemId, LocalDateTime date) {
+        return calendar(itemId).getLastBookingEnd(date);
+    }
+
+    public Optional<LocalDateTime> getNextBookingStart(long itemId, LocalDateTime date) {
+        return calendar(itemId).getNextBookingStart(date);
+    }
+
+    /**
+     * Загружает недостающие календари вещей одним запросом, например перед выводом списка вещей владельца.
+     */
+    public void preload(Collection<Long> itemIds) {
+        var notLoaded = new HashMap<Long, ItemCalendar>();
+
+        for (var itemId : itemIds) {
+            var calendar = calendars.get(itemId, id -> new ItemCalendar());
+
+            if (!calendar.isLoaded())
+                notLoaded.put(itemId, calendar);
+        }
+
+        if (notLoaded.isEmpty())
+            return;
+
+        var bookingsByItemId = primaryReads.read(() -> bookingRepository.findByItemIdInAndStatusIn(
+                        notLoaded.keySet(),
+                        BookingStatus.ACTIVE))
+                .stream()
+                .collect(Collectors.groupingBy(b -> b.getItem().getId()));
+
+        notLoaded.forEach((itemId, calendar) -> calendar.load(bookingsByItemId.getOrDefault(itemId, List.of())));
+    }
+
+    /**
+     * Сбрасывает календарь, разошедшийся с БД; при следующем обращении он загрузится заново.
+     */
+    public void invalidate(long itemId) {
+        calendars.invalidate(itemId);
+    }
+
+    public void onBookingSaved(BookingEntity bookingEntity) {
+        AfterCommit.run(() -> apply(bookingEntity));
+    }
+
+    private void apply(BookingEntity bookingEntity) {
+        var calendar = calendars.getIfPresent(bookingEntity.getItem().getId());
+
+        if (calendar != null)
+            calendar.apply(bookingEntity);
+    }
+
+    private ItemCalendar calendar(long itemId) {
+        // календарь попадает в кэш до чтения из БД, поэтому изменения, закоммиченные во время чтения, не теряются
+        var calendar = calendars.get(itemId, id -> new ItemCalendar());
+
+        if (!calendar.isLoaded())
+            calendar.load(primaryReads.read(() -> bookingRepository.findByItemIdAndStatusIn(itemId, BookingStatus.ACTIVE)));
+
+        return calendar;
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.booking.availability;
+
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingEntity;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Активные брони одной вещи в дереве интервалов.
+ * Даты хранятся в дереве миллисекундами, смещение не важно, пока оно одно для всех дат.
+ * Календарь создается пустым и заполняется из БД без удержания блокировок; изменения,
+ * пришедшие до заполнения, откладываются и применяются после него.
+ */
+final class ItemCalendar {
+    private final IntervalTree tree = new IntervalTree();
+    private final Map<Long, Long> startsById = new HashMap<>();
+    private List<BookingEntity> pending = new ArrayList<>();
+    private volatile boolean loaded;
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    synchronized void load(List<BookingEntity> bookingEntities) {
+        if (loaded)
+            return;
+
+        bookingEntities.forEach(this::applyLoaded);
+        pending.forEach(this::applyLoaded);
+        pending = null;
+        loaded = true;
+    }
+
+    synchronized void apply(BookingEntity bookingEntity) {
+        if (loaded)
+            applyLoaded(bookingEntity);
+        else
+            pending.add(bookingEntity);
+    }
+
+    synchronized boolean isFree(LocalDateTime start, LocalDateTime end) {
+        return !tree.overlaps(toMillis(start), toMillis(end));
+    }
+
+    synchronized List<BookedInterval> getBookings(LocalDateTime from, LocalDateTime to) {
+        var found = new ArrayList<long[]>();
+        tree.collect(toMillis(from), toMillis(to), found);
+
+        return found
+                .stream()
+                .map(i -> new BookedInterval(i[0], fromMillis(i[1]), fromMillis(i[2])))
+                .toList();
+    }
+
+    synchronized Optional<LocalDateTime> getLastBookingEnd(LocalDateTime date) {
+        var end = tree.lastEndBefore(toMillis(date));
+
+        return end == Long.MIN_VALUE ? Optional.empty() : Optional.of(fromMillis(end));
+    }
+
+    synchronized Optional<LocalDateTime> getNextBookingStart(LocalDateTime date) {
+        var start = tree.nextStartAfter(toMillis(date));
+
+        return start == Long.MAX_VALUE ? Optional.empty() : Optional.of(fromMillis(start));
+    }
+
+    private void applyLoaded(BookingEntity bookingEntity) {
+        var id = bookingEntity.getId();
+        var oldStart = startsById.remove(id);
+
+        if (oldStart != null)
+            tree.remove(id, oldStart);
+
+        if (BookingStatus.ACTIVE.contains(bookingEntity.getStatus())) {
+            var start = toMillis(bookingEntity.getStart());
+
+            tree.insert(id, start, toMillis(bookingEntity.getEnd()));
+            startsById.put(id, start);
+        }
+    }
+
+    private static long toMillis(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC) * 1000 + date.getNano() / 1_000_000;
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(millis, 1000),
+                (int) Math.floorMod(millis, 1000) * 1_000_000,
+                ZoneOffset.UTC);
+    }
+}
@@ -1,18 +1,24 @@
 package ru.practicum.shareit.booking.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotNull;
 import lombok.Builder;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.time.LocalDateTime;
+
 @Builder(toBuilder = true)
 public record BookingDto(
         Long id,
         Long itemId,
         BookingStatus status,
-        String start,
-        String end,
+        @NotNull @JsonFormat(pattern = BookingDto.DATE_TIME_PATTERN) LocalDateTime start,
+        @NotNull @JsonFormat(pattern = BookingDto.DATE_TIME_PATTERN) LocalDateTime end,
         UserDto booker,
         ItemDto item
-){ }
+){
+    public static final String DATE_TIME_PATTERN = "yyyy-MM-dd'T'HH:mm:ss";
+}
@@ -6,14 +6,15 @@ import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.item.storage.ItemEntity;
 import ru.practicum.shareit.user.storage.UserEntity;
 
-import java.sql.Timestamp;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "Bookings")
 @Data
 public class BookingEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     @Column(name = "booking_id")
     private Long id;
 
@@ -29,10 +30,10 @@ public class BookingEntity {
     private BookingStatus status;
 
     @Column(name = "start", nullable = false)
-    private Timestamp start;
+    private LocalDateTime start;
 
     @Column(name = "finish", nullable = false)
-    private Timestamp end;
+    private LocalDateTime end;
 
     public BookingEntity() {
 
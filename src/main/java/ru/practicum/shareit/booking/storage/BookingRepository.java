@@ -1,48 +1,207 @@
 package ru.practicum.shareit.booking.storage;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.BookingStatus;
 
-import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<BookingEntity, Long> {
-    List<BookingEntity> findByBookerId(long userId);
-
-    List<BookingEntity> findByBookerIdAndStatus(long userId, BookingStatus status);
+    @EntityGraph(attributePaths = {"booker", "item", "item.owner"})
+    Optional<BookingEntity> findWithDetailsById(long bookingId);
 
     boolean existsByBookerId(long userId);
 
     @Query("select b " +
             "from BookingEntity b " +
-            "   join b.item i " +
-            "where i.owner.id = :ownerId")
-    List<BookingEntity> findByItemOwner(@Param("ownerId") long ownerId);
+            "   join fetch b.item " +
+            "   join fetch b.booker " +
+            "where b.booker.id = :bookerId " +
+            "   and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingEntity> findPageByBookerId(
+            @Param("bookerId") long bookerId,
+            @Param("start") LocalDateTime start,
+            @Param("id") long id,
+            Limit limit);
+
+    @Query("select b " +
+            "from BookingEntity b " +
+            "   join fetch b.item " +
+            "   join fetch b.booker " +
+            "where b.booker.id = :bookerId " +
+            "   and b.status = :status " +
+            "   and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingEntity> findPageByBookerIdAndStatus(
+            @Param("bookerId") long bookerId,
+            @Param("status") BookingStatus status,
+            @Param("start") LocalDateTime start,
+            @Param("id") long id,
+            Limit limit);
+
+    @Query("select b " +
+            "from BookingEntity b " +
+            "   join fetch b.item " +
+            "   join fetch b.booker " +
+            "where b.booker.id = :bookerId " +
+            "   and b.start <= :now and b.end >= :now " +
+            "   and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingEntity> findCurrentPageByBookerId(
+            @Param("bookerId") long bookerId,
+            @Param("now") LocalDateTime now,
+            @Param("start") LocalDateTime start,
+            @Param("id") long id,
+            Limit limit);
+
+    @Query("select b " +
+            "from BookingEntity b " +
+            "   join fetch b.item " +
+            "   join fetch b.booker " +
+            "where b.booker.id = :bookerId " +
+            "   and b.end < :now " +
+            "   and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingEntity> findPastPageByBookerId(
+            @Param("bookerId") long bookerId,
+            @Param("now") LocalDateTime now,
+            @Param("start") LocalDateTime start,
+            @Param("id") long id,
+            Limit limit);
 
     @Query("select b " +
             "from BookingEntity b " +
-            "  join b.item i " +
-            "where i.owner.id = :ownerId and b.status = :status")
-    List<BookingEntity> findByItemOwnerAndStatus(
+            "   join fetch b.item " +
+            "   join fetch b.booker " +
+            "where b.booker.id = :bookerId " +
+            "   and b.start > :now " +
+            "   and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingEntity> findFuturePageByBookerId(
+            @Param("bookerId") long bookerId,
+            @Param("now") LocalDateTime now,
+            @Param("start") LocalDateTime start,
+            @Param("id") long id,
+            Limit limit);
+
+    @Query("select b " +
+            "from BookingEntity b " +
+            "   join fetch b.item i " +
+            "   join fetch b.booker " +
+            "where i.owner.id = :ownerId " +
+            "   and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingEntity> findPageByItemOwner(
             @Param("ownerId") long ownerId,
-            @Param("status") BookingStatus status);
+            @Param("start") LocalDateTime start,
+            @Param("id") long id,
+            Limit limit);
 
-    boolean existsByBookerIdAndItemIdAndEndLessThan(long userId, long itemId, Timestamp date);
+    @Query("select b " +
+            "from BookingEntity b " +
+            "   join fetch b.item i " +
+            "   join fetch b.booker " +
+            "where i.owner.id = :ownerId " +
+            "   and b.status = :status " +
+            "   and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingEntity> findPageByItemOwnerAndStatus(
+            @Param("ownerId") long ownerId,
+            @Param("status") BookingStatus status,
+            @Param("start") LocalDateTime start,
+            @Param("id") long id,
+            Limit limit);
 
-    @Query("Select min(b.start) " +
+    @Query("select b " +
             "from BookingEntity b " +
-            "where b.item.id = :itemId and b.start > :date")
-    Optional<Timestamp> findDateNextBooking(
+            "   join fetch b.item i " +
+            "   join fetch b.booker " +
+            "where i.owner.id = :ownerId " +
+            "   and b.start <= :now and b.end >= :now " +
+            "   and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingEntity> findCurrentPageByItemOwner(
+            @Param("ownerId") long ownerId,
+            @Param("now") LocalDateTime now,
+            @Param("start") LocalDateTime start,
+            @Param("id") long id,
+            Limit limit);
+
+    @Query("select b " +
+            "from BookingEntity b " +
+            "   join fetch b.item i " +
+            "   join fetch b.booker " +
+            "where i.owner.id = :ownerId " +
+            "   and b.end < :now " +
+            "   and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingEntity> findPastPageByItemOwner(
+            @Param("ownerId") long ownerId,
+            @Param("now") LocalDateTime now,
+            @Param("start") LocalDateTime start,
+            @Param("id") long id,
+            Limit limit);
+
+    @Query("select b " +
+            "from BookingEntity b " +
+            "   join fetch b.item i " +
+            "   join fetch b.booker " +
+            "where i.owner.id = :ownerId " +
+            "   and b.start > :now " +
+            "   and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingEntity> findFuturePageByItemOwner(
+            @Param("ownerId") long ownerId,
+            @Param("now") LocalDateTime now,
+            @Param("start") LocalDateTime start,
+            @Param("id") long id,
+            Limit limit);
+
+    @Query("select count(b) > 0 " +
+            "from BookingEntity b " +
+            "where b.item.id = :itemId " +
+            "   and b.status in :statuses " +
+            "   and b.start < :end and b.end > :start")
+    boolean existsOverlapping(
             @Param("itemId") long itemId,
-            @Param("date") Timestamp date);
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
 
-    @Query("Select max(b.end) " +
+    @Query("select b " +
             "from BookingEntity b " +
-            "where b.item.id = :itemId and b.end < :date")
-    Optional<Timestamp> findDateLastBooking(
+            "where b.item.id = :itemId " +
+            "   and b.status in :statuses " +
+            "   and b.start < :end and b.end > :start")
+    List<BookingEntity> findOverlapping(
             @Param("itemId") long itemId,
-            @Param("date") Timestamp date);
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
+
+    List<BookingEntity> findByItemIdAndStatusIn(long itemId, Collection<BookingStatus> statuses);
+
+    List<BookingEntity> findByItemIdInAndStatusIn(Collection<Long> itemIds, Collection<BookingStatus> statuses);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select b " +
+            "from BookingEntity b " +
+            "where b.item.owner.id = :ownerId " +
+            "order by b.id")
+    Stream<BookingEntity> streamByItemOwner(@Param("ownerId") long ownerId);
+
+    boolean existsByBookerIdAndItemIdAndEndLessThan(long userId, long itemId, LocalDateTime date);
 }
@@ -1,16 +1,22 @@
 package ru.practicum.shareit.booking.storage;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.BookingStorage;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.tool.EntityStreams;
+import ru.practicum.shareit.tool.KeysetCursor;
 
-import java.sql.Timestamp;
-import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Component
 @RequiredArgsConstructor
@@ -18,10 +24,12 @@ import java.util.Optional;
 @Primary
 public class BookingStorageInDb implements BookingStorage {
     private final BookingRepository bookingRepository;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final EntityManager entityManager;
 
     @Override
     public Optional<BookingEntity> getBooking(long bookingId) {
-        return bookingRepository.findById(bookingId);
+        return bookingRepository.findWithDetailsById(bookingId);
     }
 
     @Override
@@ -37,32 +45,87 @@ public class BookingStorageInDb implements BookingStorage {
 
     @Override
     public void updateBooking(BookingEntity bookingEntity) {
-        bookingRepository.saveAndFlush(bookingEntity);
+        bookingRepository.save(bookingEntity);
+        itemAvailabilityIndex.onBookingSaved(bookingEntity);
     }
 
     @Override
-    public List<BookingEntity> findBookingsByBookerId(long userId) {
-        return bookingRepository.findByBookerId(userId);
+    public void updateBookings(Collection<BookingEntity> bookingEntities) {
+        bookingRepository.saveAll(bookingEntities);
+        bookingEntities.forEach(itemAvailabilityIndex::onBookingSaved);
     }
 
     @Override
-    public List<BookingEntity> findBookingsByBookerId(long userId, BookingStatus state) {
-        return bookingRepository.findByBookerIdAndStatus(userId, state);
+    public List<BookingEntity> findBookingsByBookerId(long userId, KeysetCursor after, int size) {
+        return bookingRepository.findPageByBookerId(userId, after.time(), after.id(), Limit.of(size));
     }
 
     @Override
-    public List<BookingEntity> findBookingsByOwnerId(long userId) {
-        return bookingRepository.findByItemOwner(userId);
+    public List<BookingEntity> findBookingsByBookerId(long userId, BookingStatus state, KeysetCursor after, int size) {
+        return bookingRepository.findPageByBookerIdAndStatus(userId, state, after.time(), after.id(), Limit.of(size));
     }
 
     @Override
-    public List<BookingEntity> findBookingsByOwnerId(long userId, BookingStatus state) {
-        return bookingRepository.findByItemOwnerAndStatus(userId, state);
+    public List<BookingEntity> findCurrentBookingsByBookerId(long userId, KeysetCursor after, int size) {
+        return bookingRepository.findCurrentPageByBookerId(userId, now(), after.time(), after.id(), Limit.of(size));
+    }
+
+    @Override
+    public List<BookingEntity> findPastBookingsByBookerId(long userId, KeysetCursor after, int size) {
+        return bookingRepository.findPastPageByBookerId(userId, now(), after.time(), after.id(), Limit.of(size));
+    }
+
+    @Override
+    public List<BookingEntity> findFutureBookingsByBookerId(long userId, KeysetCursor after, int size) {
+        return bookingRepository.findFuturePageByBookerId(userId, now(), after.time(), after.id(), Limit.of(size));
+    }
+
+    @Override
+    public List<BookingEntity> findBookingsByOwnerId(long ownerId, KeysetCursor after, int size) {
+        return bookingRepository.findPageByItemOwner(ownerId, after.time(), after.id(), Limit.of(size));
+    }
+
+    @Override
+    public List<BookingEntity> findBookingsByOwnerId(long ownerId, BookingStatus state, KeysetCursor after, int size) {
+        return bookingRepository.findPageByItemOwnerAndStatus(ownerId, state, after.time(), after.id(), Limit.of(size));
+    }
+
+    @Override
+    public List<BookingEntity> findCurrentBookingsByOwnerId(long ownerId, KeysetCursor after, int size) {
+        return bookingRepository.findCurrentPageByItemOwner(ownerId, now(), after.time(), after.id(), Limit.of(size));
+    }
+
+    @Override
+    public List<BookingEntity> findPastBookingsByOwnerId(long ownerId, KeysetCursor after, int size) {
+        return bookingRepository.findPastPageByItemOwner(ownerId, now(), after.time(), after.id(), Limit.of(size));
+    }
+
+    @Override
+    public List<BookingEntity> findFutureBookingsByOwnerId(long ownerId, KeysetCursor after, int size) {
+        return bookingRepository.findFuturePageByItemOwner(ownerId, now(), after.time(), after.id(), Limit.of(size));
     }
 
     @Override
     public boolean existsByBookerIdAndItemIdAndAfterEnd(long userId, long itemId) {
-        var date = Timestamp.from(Instant.now());
-        return bookingRepository.existsByBookerIdAndItemIdAndEndLessThan(userId, itemId, date);
+        return bookingRepository.existsByBookerIdAndItemIdAndEndLessThan(userId, itemId, now());
+    }
+
+    @Override
+    public boolean existsOverlappingBooking(long itemId, LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.existsOverlapping(itemId, BookingStatus.ACTIVE, start, end);
+    }
+
+    @Override
+    public List<BookingEntity> findOverlappingBookings(long itemId, LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.findOverlapping(itemId, BookingStatus.ACTIVE, start, end);
+    }
+
+    @Override
+    public void forEachBookingOfOwner(long ownerId, Consumer<BookingEntity> action) {
+        EntityStreams.forEach(entityManager, bookingRepository.streamByItemOwner(ownerId), action);
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now();
     }
 }
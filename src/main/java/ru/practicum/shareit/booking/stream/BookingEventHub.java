@@ -0,0 +1,85 @@
+package ru.practicum.shareit.booking.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.tool.AfterCommit;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Раздает изменения броней подписчикам по id пользователя: владельцу вещи и арендатору.
+ * Публикация только кладет изменение в буферы подписок и никогда не ждет медленных клиентов.
+ * Подписки живут в памяти экземпляра, клиент после переподключения перечитывает брони запросом.
+ * Метрики: shareit.bookings.stream.subscribers, shareit.bookings.stream.published,
+ * shareit.bookings.stream.dropped - вытесненные из переполненных буферов изменения.
+ */
+@Component
+public class BookingEventHub {
+    private final Map<Long, Set<BookingSubscription>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private final int bufferSize;
+    private final Counter published;
+    private final Counter dropped;
+
+    public BookingEventHub(
+            MeterRegistry meterRegistry,
+            @Value("${shareit.bookings.stream.buffer-size:32}") int bufferSize) {
+        this.bufferSize = bufferSize;
+        this.published = meterRegistry.counter("shareit.bookings.stream.published");
+        this.dropped = meterRegistry.counter("shareit.bookings.stream.dropped");
+
+        Gauge.builder("shareit.bookings.stream.subscribers", subscriptions, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    public BookingSubscription subscribe(long userId) {
+        var subscription = new BookingSubscription(userId, bufferSize);
+
+        subscribers.compute(userId, (id, set) -> {
+            var result = set == null ? ConcurrentHashMap.<BookingSubscription>newKeySet() : set;
+            result.add(subscription);
+
+            return result;
+        });
+        subscriptions.incrementAndGet();
+
+        return subscription;
+    }
+
+    public void unsubscribe(BookingSubscription subscription) {
+        subscription.close();
+
+        subscribers.computeIfPresent(subscription.getUserId(), (id, set) -> {
+            if (set.remove(subscription))
+                subscriptions.decrementAndGet();
+
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * Изменение уходит владельцу и арендатору после коммита смены статуса.
+     */
+    public void onStatusChanged(BookingDto booking, long ownerId) {
+        AfterCommit.run(() -> Stream.of(ownerId, booking.booker().id())
+                .distinct()
+                .forEach(userId -> publish(userId, booking)));
+    }
+
+    private void publish(long userId, BookingDto booking) {
+        for (var subscription : subscribers.getOrDefault(userId, Set.of())) {
+            if (subscription.offer(booking))
+                dropped.increment();
+
+            published.increment();
+        }
+    }
+}
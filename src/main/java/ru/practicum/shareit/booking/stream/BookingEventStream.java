@@ -0,0 +1,76 @@
+package ru.practicum.shareit.booking.stream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Отдает подписку клиенту как Server-Sent Events. Каждую подписку обслуживает свой виртуальный поток:
+ * ожидая изменений, он не держит ни потока-носителя, ни потока сервлет-контейнера.
+ * События: booking - измененная бронь, overflow - часть изменений вытеснена и брони нужно перечитать.
+ * Раз в heartbeat отправляется комментарий, чтобы заметить отключившегося клиента;
+ * через timeout поток закрывается, и клиент переподключается.
+ */
+@Component
+@Slf4j
+public class BookingEventStream {
+    private final BookingEventHub bookingEventHub;
+    private final Duration heartbeat;
+    private final Duration timeout;
+
+    public BookingEventStream(
+            BookingEventHub bookingEventHub,
+            @Value("${shareit.bookings.stream.heartbeat:PT15S}") Duration heartbeat,
+            @Value("${shareit.bookings.stream.timeout:PT30M}") Duration timeout) {
+        this.bookingEventHub = bookingEventHub;
+        this.heartbeat = heartbeat;
+        this.timeout = timeout;
+    }
+
+    public SseEmitter open(BookingSubscription subscription) {
+        var emitter = new SseEmitter(timeout.toMillis());
+
+        emitter.onCompletion(() -> bookingEventHub.unsubscribe(subscription));
+        emitter.onTimeout(() -> bookingEventHub.unsubscribe(subscription));
+        emitter.onError(e -> bookingEventHub.unsubscribe(subscription));
+
+        Thread.ofVirtual()
+                .name("booking-stream-" + subscription.getUserId())
+                .start(() -> pump(subscription, emitter));
+
+        return emitter;
+    }
+
+    private void pump(BookingSubscription subscription, SseEmitter emitter) {
+        try {
+            while (!subscription.isClosed()) {
+                var booking = subscription.poll(heartbeat);
+
+                if (subscription.takeDropped() > 0)
+                    emitter.send(SseEmitter.event().name("overflow").data(""));
+
+                if (booking != null) {
+                    emitter.send(SseEmitter.event()
+                            .name("booking")
+                            .id(String.valueOf(booking.id()))
+                            .data(booking, MediaType.APPLICATION_JSON));
+                } else if (!subscription.isClosed()) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // клиент отключился или поток уже завершен контейнером
+            log.debug("Поток броней пользователя {} закрыт", subscription.getUserId(), e);
+            emitter.completeWithError(e);
+        } catch (InterruptedException e) {
+            emitter.complete();
+        } finally {
+            bookingEventHub.unsubscribe(subscription);
+        }
+    }
+}
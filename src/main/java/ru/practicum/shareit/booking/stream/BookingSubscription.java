@@ -0,0 +1,119 @@
+package ru.practicum.shareit.booking.stream;
+
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Буфер изменений броней одного подписчика на capacity записей. Если подписчик не успевает
+ * читать, самое старое изменение вытесняется, а число вытесненных копится до следующего чтения.
+ * Используется ReentrantLock, а не synchronized: ожидающий виртуальный поток не занимает поток-носитель.
+ */
+public class BookingSubscription {
+    private final long userId;
+    private final int capacity;
+    private final ArrayDeque<BookingDto> buffer;
+    private final Lock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private int dropped;
+    private boolean closed;
+
+    BookingSubscription(long userId, int capacity) {
+        this.userId = userId;
+        this.capacity = capacity;
+        this.buffer = new ArrayDeque<>(capacity);
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return true, если ради нового изменения вытеснено самое старое
+     */
+    boolean offer(BookingDto booking) {
+        lock.lock();
+
+        try {
+            if (closed)
+                return false;
+
+            var overflow = buffer.size() == capacity;
+
+            if (overflow) {
+                buffer.pollFirst();
+                dropped++;
+            }
+
+            buffer.addLast(booking);
+            changed.signal();
+
+            return overflow;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ждет следующее изменение не дольше timeout.
+     *
+     * @return изменение или null, если за timeout ничего не пришло или подписка закрыта
+     */
+    public BookingDto poll(Duration timeout) throws InterruptedException {
+        var nanos = timeout.toNanos();
+
+        lock.lock();
+
+        try {
+            while (buffer.isEmpty() && !closed && nanos > 0)
+                nanos = changed.awaitNanos(nanos);
+
+            return closed ? null : buffer.pollFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Число изменений, вытесненных с прошлого вызова.
+     */
+    public int takeDropped() {
+        lock.lock();
+
+        try {
+            var result = dropped;
+            dropped = 0;
+
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isClosed() {
+        lock.lock();
+
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() {
+        lock.lock();
+
+        try {
+            closed = true;
+            buffer.clear();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
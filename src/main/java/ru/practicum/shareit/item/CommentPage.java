@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.tool.KeysetCursor;
+
+import java.util.List;
+import java.util.Optional;
+
+public record CommentPage(
+        List<CommentDto> comments,
+        Optional<KeysetCursor> next
+) { }
@@ -1,20 +1,43 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemToUpdateDto;
+import ru.practicum.shareit.tool.ImportReport;
+import ru.practicum.shareit.tool.KeysetCursor;
+import ru.practicum.shareit.tool.RowFormat;
+import ru.practicum.shareit.tool.RowReader;
+import ru.practicum.shareit.tool.RowWriter;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
 public class ItemController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final List<String> EXPORT_COLUMNS = List.of("id", "name", "description", "available");
+
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     @GetMapping
     public List<ItemDto> getItems(@RequestHeader("X-Sharer-User-Id") long userId) {
@@ -22,13 +45,50 @@ public class ItemController {
     }
 
     @GetMapping("/{id}")
-    public ItemDto getItem(@PathVariable long id) {
-        return itemService.getItem(id);
+    public ItemDto getItem(
+            @PathVariable long id,
+            @RequestHeader(value = "X-Sharer-User-Id", required = false) Long userId,
+            @RequestParam(required = false) Integer comments,
+            WebRequest request,
+            HttpServletResponse response) {
+        // владельцу отдается другое представление с датами броней
+        response.setHeader(HttpHeaders.VARY, "X-Sharer-User-Id");
+
+        var revision = itemService.getItemRevision(id, Optional.ofNullable(userId));
+
+        if (request.checkNotModified(revision.etag(), revision.lastModifiedMillis()))
+            return null;
+
+        return itemService.getItem(id, Optional.ofNullable(userId), Optional.ofNullable(comments));
+    }
+
+    @GetMapping("/{id}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(
+            @PathVariable long id,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        var page = itemService.getComments(id, KeysetCursor.decode(after), size);
+        var response = ResponseEntity.ok();
+
+        page.next().ifPresent(cursor -> response.header(NEXT_CURSOR_HEADER, cursor.encode()));
+
+        return response.body(page.comments());
+    }
+
+    @GetMapping("/{id}/availability")
+    public ItemAvailabilityDto getAvailability(
+            @PathVariable long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(id, from, to);
     }
 
     @GetMapping("/search")
-    public List<ItemDto> findItemsByText(@RequestParam String text) {
-        return itemService.findFreeItemsByText(text, true);
+    public List<ItemDto> findItemsByText(
+            @RequestParam String text,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(defaultValue = "100") int size) {
+        return itemService.findFreeItemsByText(text, true, from, size);
     }
 
     @PostMapping
@@ -38,6 +98,45 @@ public class ItemController {
         return itemService.createItem(itemDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<ItemDto> postItems(
+            @RequestBody List<@Valid ItemDto> items,
+            @RequestHeader("X-Sharer-User-Id") long userId) {
+        return itemService.createItems(items, userId);
+    }
+
+    @PostMapping(path = "/import", consumes = {RowFormat.NDJSON_VALUE, RowFormat.CSV_VALUE})
+    public ImportReport importItems(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        var rows = RowReader.read(
+                body,
+                RowFormat.of(MediaType.parseMediaType(contentType)),
+                objectMapper,
+                validator,
+                ItemDto.class);
+
+        return itemService.importItems(rows, userId);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportItems(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        var rowFormat = RowFormat.of(format);
+        var export = itemService.exportItems(userId);
+
+        return ResponseEntity
+                .ok()
+                .contentType(rowFormat.mediaType())
+                .body(outputStream -> {
+                    var writer = new RowWriter(outputStream, rowFormat, objectMapper, EXPORT_COLUMNS);
+                    export.accept(writer::write);
+                    writer.flush();
+                });
+    }
+
     @PostMapping("/{id}/comment")
     public CommentDto postComment(
             @PathVariable long id,
@@ -4,30 +4,15 @@ import jakarta.validation.constraints.NotNull;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.storage.ItemEntity;
-import ru.practicum.shareit.item.storage.ItemWithDateOfBookings;
+import ru.practicum.shareit.item.view.ItemView;
+import ru.practicum.shareit.request.storage.ItemRequestEntity;
 import ru.practicum.shareit.user.storage.UserEntity;
 
-import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public class ItemMapper {
-    public ItemDto toDto(ItemWithDateOfBookings entity) {
-        return toDto(
-                entity.getItemEntity(),
-                Optional.ofNullable(entity.getLastDateBooking()),
-                Optional.ofNullable(entity.getNextDateBooking()),
-                List.of());
-    }
-
-    public ItemDto toDto(ItemWithDateOfBookings entity, List<CommentDto> comments) {
-        return toDto(
-                entity.getItemEntity(),
-                Optional.ofNullable(entity.getLastDateBooking()),
-                Optional.ofNullable(entity.getNextDateBooking()),
-                comments);
-    }
-
     public ItemDto toDto(ItemEntity itemEntity) {
         return toDto(itemEntity, Optional.empty(),Optional.empty(), List.of());
     }
@@ -38,8 +23,8 @@ public class ItemMapper {
 
     public ItemDto toDto(
             ItemEntity itemEntity,
-            @NotNull Optional<Timestamp> lastBooking,
-            @NotNull Optional<Timestamp> nextBooking,
+            @NotNull Optional<LocalDateTime> lastBooking,
+            @NotNull Optional<LocalDateTime> nextBooking,
             List<CommentDto> comments) {
         var build = ItemDto
                 .builder()
@@ -47,7 +32,32 @@ public class ItemMapper {
                 .name(itemEntity.getName())
                 .description(itemEntity.getDescription())
                 .available(itemEntity.isAvailable())
-                .comments(comments);
+                .comments(comments)
+                .requestId(itemEntity.getRequest() == null ? null : itemEntity.getRequest().getId());
+
+        lastBooking.ifPresent(build::lastBooking);
+        nextBooking.ifPresent(build::nextBooking);
+
+        return build.build();
+    }
+
+    public ItemDto toDto(ItemView itemView, List<CommentDto> comments) {
+        return toDto(itemView, comments, Optional.empty(), Optional.empty());
+    }
+
+    public ItemDto toDto(
+            ItemView itemView,
+            List<CommentDto> comments,
+            @NotNull Optional<LocalDateTime> lastBooking,
+            @NotNull Optional<LocalDateTime> nextBooking) {
+        var build = ItemDto
+                .builder()
+                .id(itemView.id())
+                .name(itemView.name())
+                .description(itemView.description())
+                .available(itemView.available())
+                .comments(comments)
+                .requestId(itemView.requestId());
 
         lastBooking.ifPresent(build::lastBooking);
         nextBooking.ifPresent(build::nextBooking);
@@ -55,6 +65,13 @@ public class ItemMapper {
         return build.build();
     }
 
+    public ItemEntity toEntity(ItemDto itemDto, UserEntity userEntity, ItemRequestEntity requestEntity) {
+        var entity = toEntity(itemDto, userEntity);
+        entity.setRequest(requestEntity);
+
+        return entity;
+    }
+
     public ItemEntity toEntity(ItemDto itemDto, UserEntity userEntity) {
         var entity = new ItemEntity();
         entity.setId(itemDto.id());
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.storage.ItemEntity;
+
+import java.util.List;
+
+/**
+ * Полнотекстовый поиск вещей по названию и описанию.
+ * Возвращает id вещей, отсортированные по релевантности.
+ */
+public interface ItemSearchEngine {
+    List<Long> search(String text, boolean available, int from, int size);
+
+    void index(ItemEntity itemEntity);
+
+    void remove(long itemId);
+}
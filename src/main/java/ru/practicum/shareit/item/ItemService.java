@@ -2,53 +2,287 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.BookingStorage;
+import ru.practicum.shareit.booking.availability.ItemAvailabilityIndex;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.NotValidException;
+import ru.practicum.shareit.item.dto.BookedIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemToUpdateDto;
 import ru.practicum.shareit.item.storage.CommentMapper;
+import ru.practicum.shareit.item.storage.ItemEntity;
+import ru.practicum.shareit.item.view.ItemView;
+import ru.practicum.shareit.item.view.ItemViewProjection;
+import ru.practicum.shareit.request.ItemRequestStorage;
+import ru.practicum.shareit.request.matching.ItemRequestMatcher;
+import ru.practicum.shareit.request.storage.ItemRequestEntity;
+import ru.practicum.shareit.tool.ImportReport;
+import ru.practicum.shareit.tool.KeysetCursor;
+import ru.practicum.shareit.tool.Revision;
+import ru.practicum.shareit.tool.RowReader.Row;
 import ru.practicum.shareit.user.UserStorage;
+import ru.practicum.shareit.user.storage.UserEntity;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ItemService {
+    private static final int AVAILABILITY_DEFAULT_DAYS = 30;
+    private static final int BATCH_MAX_SIZE = 10_000;
+    private static final int IMPORT_CHUNK_SIZE = 500;
+
     private final ItemStorage itemStorage;
     private final UserStorage userStorage;
     private final BookingStorage bookingStorage;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final ItemViewProjection itemViews;
+    private final ItemRequestStorage itemRequestStorage;
+    private final ItemRequestMatcher itemRequestMatcher;
+    private final TransactionTemplate transactionTemplate;
     private final ItemMapper itemMapper = new ItemMapper();
     private final CommentMapper commentMapper = new CommentMapper();
 
     public ItemDto getItem(long itemId) {
-        var itemEntity = itemStorage.getItem(itemId)
+        return getItem(itemId, Optional.empty(), Optional.empty());
+    }
+
+    public ItemDto getItem(long itemId, Optional<Long> userId) {
+        return getItem(itemId, userId, Optional.empty());
+    }
+
+    /**
+     * Вещь берется из представлений ItemViewProjection, даты броней владельцу - из календаря,
+     * поэтому при прогретых кэшах запросов в БД нет и транзакция не открывается.
+     * Если задано latestComments, отдаются только последние комментарии.
+     */
+    public ItemDto getItem(long itemId, Optional<Long> userId, Optional<Integer> latestComments) {
+        if (latestComments.isPresent() && latestComments.get() <= 0) {
+            throw new NotValidException("Количество комментариев должно быть больше нуля");
+        }
+
+        var itemView = itemViews.get(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
+
+        var comments = getComments(itemView, latestComments);
+
+        if (userId.isEmpty() || itemView.ownerId() != userId.get())
+            return itemMapper.toDto(itemView, comments);
+
+        var now = LocalDateTime.now();
+
+        return itemMapper.toDto(
+                itemView,
+                comments,
+                itemAvailabilityIndex.getLastBookingEnd(itemId, now),
+                itemAvailabilityIndex.getNextBookingStart(itemId, now));
+    }
+
+    /**
+     * Комментарии вещи от новых к старым, страница начинается после курсора.
+     */
+    @Transactional(readOnly = true)
+    public CommentPage getComments(long itemId, KeysetCursor after, int size) {
+        if (size <= 0) {
+            throw new NotValidException("Размер страницы должен быть больше нуля");
+        }
+
+        itemViews.get(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
+
+        var commentEntities = itemStorage.getCommentsPage(itemId, after, size);
+
+        var next = commentEntities.size() < size
+                ? Optional.<KeysetCursor>empty()
+                : Optional.of(commentEntities.get(commentEntities.size() - 1))
+                        .map(c -> new KeysetCursor(c.getCreated().toLocalDateTime(), c.getId()));
+
+        return new CommentPage(
+                commentEntities
+                        .stream()
+                        .map(commentMapper::toDto)
+                        .toList(),
+                next);
+    }
+
+    /**
+     * Версия представления вещи. Владельцу показываются даты броней, они входят в ETag.
+     */
+    public Revision getItemRevision(long itemId, Optional<Long> userId) {
+        var itemView = itemViews.get(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
+
+        var revision = Revision.of(itemView.version(), itemView.updated());
+
+        if (userId.isEmpty() || itemView.ownerId() != userId.get())
+            return revision;
+
+        var now = LocalDateTime.now();
+        var lastBooking = itemAvailabilityIndex.getLastBookingEnd(itemId, now);
+        var nextBooking = itemAvailabilityIndex.getNextBookingStart(itemId, now);
+
+        return revision.withVariant(Integer.toHexString(Objects.hash(lastBooking, nextBooking)));
+    }
+
+    @Transactional(readOnly = true)
+    public ItemAvailabilityDto getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        itemStorage.getItem(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
 
-        var comments = itemEntity.getComments()
+        if (from == null)
+            from = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        if (to == null)
+            to = from.plusDays(AVAILABILITY_DEFAULT_DAYS);
+
+        if (!from.isBefore(to)) {
+            throw new NotValidException("Начало периода должно быть раньше окончания");
+        }
+
+        var bookings = itemAvailabilityIndex.getBookings(itemId, from, to)
                 .stream()
-                .map(commentMapper::toDto)
+                .map(b -> new BookedIntervalDto(b.bookingId(), b.start(), b.end()))
                 .toList();
 
-        return itemMapper.toDto(itemEntity, comments);
+        return ItemAvailabilityDto
+                .builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .free(bookings.isEmpty())
+                .bookings(bookings)
+                .build();
     }
 
+    @Transactional
     public ItemDto createItem(ItemDto item, long userId) {
         var userEntity = userStorage.getUser(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
 
-        var itemEntity = itemMapper.toEntity(item, userEntity);
+        var requestEntity = item.requestId() == null
+                ? null
+                : itemRequestStorage.getRequest(item.requestId())
+                        .orElseThrow(() -> new NotFoundException("Запрос не найден"));
+
+        var itemEntity = itemMapper.toEntity(item, userEntity, requestEntity);
 
         itemStorage.updateItem(itemEntity);
+        itemViews.onItemSaved(itemEntity);
+        itemRequestMatcher.onItemSaved(itemEntity);
 
         return itemMapper.toDto(itemEntity);
     }
 
+    @Transactional
+    public List<ItemDto> createItems(List<ItemDto> items, long userId) {
+        if (items.size() > BATCH_MAX_SIZE) {
+            throw new NotValidException("В пакете больше " + BATCH_MAX_SIZE + " записей");
+        }
+
+        var userEntity = userStorage.getUser(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+
+        var requestIds = items
+                .stream()
+                .map(ItemDto::requestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        var requestsById = itemRequestStorage.getRequests(requestIds)
+                .stream()
+                .collect(Collectors.toMap(ItemRequestEntity::getId, Function.identity()));
+
+        if (requestsById.size() < requestIds.size()) {
+            throw new NotFoundException("Запрос не найден");
+        }
+
+        var itemEntities = items
+                .stream()
+                .map(i -> itemMapper.toEntity(
+                        i.toBuilder().id(null).build(),
+                        userEntity,
+                        i.requestId() == null ? null : requestsById.get(i.requestId())))
+                .toList();
+
+        itemStorage.updateItems(itemEntities);
+        itemViews.onItemsSaved(itemEntities);
+        itemRequestMatcher.onItemsSaved(itemEntities);
+
+        return itemEntities
+                .stream()
+                .map(itemMapper::toDto)
+                .toList();
+    }
+
+    /**
+     * Загружает вещи пользователя из потока строк пачками по IMPORT_CHUNK_SIZE,
+     * каждая пачка в своей транзакции. Строки с ошибками пропускаются и попадают в отчет.
+     * Если пачку отвергла БД, она сохраняется построчно, и в отчет попадают только ее виновники.
+     */
+    public ImportReport importItems(Stream<Row<ItemDto>> rows, long userId) {
+        var userEntity = userStorage.getUser(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+
+        var report = new ImportReport();
+        var chunk = new ArrayList<ImportedItem>(IMPORT_CHUNK_SIZE);
+
+        try (rows) {
+            var iterator = rows.iterator();
+
+            while (iterator.hasNext()) {
+                var row = iterator.next();
+
+                if (!row.isValid()) {
+                    report.reject(row.line(), row.error());
+                    continue;
+                }
+
+                chunk.add(new ImportedItem(row.line(), row.value().toBuilder().id(null).build()));
+
+                if (chunk.size() == IMPORT_CHUNK_SIZE)
+                    saveChunk(chunk, userEntity, report);
+            }
+        }
+
+        saveChunk(chunk, userEntity, report);
+
+        return report;
+    }
+
+    /**
+     * Проверяет пользователя сразу, а вещи читает курсором при вызове выгрузки,
+     * уже во время записи ответа.
+     */
+    public Consumer<Consumer<ItemDto>> exportItems(long userId) {
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
+
+        var transaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        transaction.setReadOnly(true);
+
+        return sink -> transaction.executeWithoutResult(status ->
+                itemStorage.forEachItemOfOwner(userId, i -> sink.accept(itemMapper.toDto(i))));
+    }
+
+    @Transactional
     public ItemDto updateItem(ItemDto item, long userId) {
         var itemEntityOld = itemStorage.getItem(item.id())
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
@@ -59,13 +293,18 @@ public class ItemService {
             throw new NotFoundException("Вещь не доступна");
         }
 
-        var itemEntity = itemMapper.toEntity(item, owner);
+        // привязка к запросу задается при создании вещи и при замене не меняется
+        var itemEntity = itemMapper.toEntity(item, owner, itemEntityOld.getRequest());
+        itemEntity.setVersion(itemEntityOld.getVersion());
 
         itemStorage.updateItem(itemEntity);
+        itemViews.onItemSaved(itemEntity);
+        itemRequestMatcher.onItemSaved(itemEntity);
 
         return itemMapper.toDto(itemEntity);
     }
 
+    @Transactional
     public ItemDto updateItem(long itemId, ItemToUpdateDto item, long userId) {
         var itemEntity = itemStorage.getItem(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
@@ -84,10 +323,13 @@ public class ItemService {
             itemEntity.setAvailable(item.available());
 
         itemStorage.updateItem(itemEntity);
+        itemViews.onItemSaved(itemEntity);
+        itemRequestMatcher.onItemSaved(itemEntity);
 
         return itemMapper.toDto(itemEntity);
     }
 
+    @Transactional
     public ItemDto deleteItem(long itemId, long userId) {
         var itemEntityOld = itemStorage.getItem(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
@@ -99,27 +341,58 @@ public class ItemService {
         }
 
         itemStorage.deleteItem(itemId);
+        itemViews.onItemDeleted(itemEntityOld);
 
         return itemMapper.toDto(itemEntityOld);
     }
 
     public List<ItemDto> getItems(long userId) {
-        var userEntity = userStorage.getUser(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
 
-        var itemEntities = userEntity.getItems();
+        var itemViewList = itemViews.getForOwner(userId);
 
-        return itemEntities
+        itemAvailabilityIndex.preload(itemViewList
                 .stream()
-                .map(itemMapper::toDto)
+                .map(ItemView::id)
+                .toList());
+
+        // в представлениях только последние комментарии, полные списки дочитываются одним запросом
+        var partialIds = itemViewList
+                .stream()
+                .filter(i -> !i.hasAllComments())
+                .map(ItemView::id)
+                .toList();
+
+        var commentsByItemId = itemStorage.getCommentsForItems(partialIds)
+                .stream()
+                .collect(Collectors.groupingBy(
+                        c -> c.getItem().getId(),
+                        Collectors.mapping(commentMapper::toDto, Collectors.toList())));
+
+        var now = LocalDateTime.now();
+
+        return itemViewList
+                .stream()
+                .map(i -> itemMapper.toDto(
+                        i,
+                        commentsByItemId.getOrDefault(i.id(), i.latestComments()),
+                        itemAvailabilityIndex.getLastBookingEnd(i.id(), now),
+                        itemAvailabilityIndex.getNextBookingStart(i.id(), now)))
                 .toList();
     }
 
-    public List<ItemDto> findFreeItemsByText(String text, boolean available) {
+    @Transactional(readOnly = true)
+    public List<ItemDto> findFreeItemsByText(String text, boolean available, int from, int size) {
+        if (from < 0 || size <= 0) {
+            throw new NotValidException("Некорректные параметры страницы");
+        }
+
         if (text == null || text.isEmpty())
             return List.of();
 
-        var itemEntities = itemStorage.findItemsByTextAndStatus(text, true);
+        var itemEntities = itemStorage.findItemsByTextAndStatus(text, available, from, size);
 
         return itemEntities
                 .stream()
@@ -127,8 +400,9 @@ public class ItemService {
                 .toList();
     }
 
+    @Transactional
     public CommentDto addComment(CommentDto commentDto, long itemId, long userId) {
-        log.trace(String.format("addComment: itemId = %d, userId = %d", itemId, userId));
+        log.trace("addComment: itemId = {}, userId = {}", itemId, userId);
 
         var userEntity = userStorage.getUser(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
@@ -136,7 +410,7 @@ public class ItemService {
         var itemEntity = itemStorage.getItem(itemId)
                 .orElseThrow(() -> new NotFoundException("Вешь не найдена"));
 
-        log.trace(String.format("addComment: itemEntity = {%s}", itemEntity));
+        log.trace("addComment: itemEntity = {}", itemEntity);
 
         if (!bookingStorage.existsByBookerIdAndItemIdAndAfterEnd(userId, itemId)) {
             throw new NotValidException("Пользователь не брал вещь, не может оставить комментарий");
@@ -147,7 +421,74 @@ public class ItemService {
         commentEntity.setCreated(Timestamp.valueOf(LocalDateTime.now()));
 
         itemStorage.updateComment(commentEntity);
+        itemViews.onCommentAdded(commentEntity);
 
         return commentMapper.toDto(commentEntity);
     }
+
+    private List<CommentDto> getComments(ItemView itemView, Optional<Integer> latestComments) {
+        var latest = itemView.latestComments();
+
+        if (latestComments.isEmpty()) {
+            if (itemView.hasAllComments())
+                return latest;
+
+            return itemStorage.getCommentsForItems(List.of(itemView.id()))
+                    .stream()
+                    .map(commentMapper::toDto)
+                    .toList();
+        }
+
+        var limit = latestComments.get();
+
+        if (limit <= latest.size() || itemView.hasAllComments())
+            return latest.subList(Math.max(0, latest.size() - limit), latest.size());
+
+        var commentEntities = new ArrayList<>(itemStorage.getCommentsPage(itemView.id(), KeysetCursor.first(), limit));
+        Collections.reverse(commentEntities);
+
+        return commentEntities
+                .stream()
+                .map(commentMapper::toDto)
+                .toList();
+    }
+
+    private void saveChunk(List<ImportedItem> chunk, UserEntity userEntity, ImportReport report) {
+        if (chunk.isEmpty())
+            return;
+
+        var items = List.copyOf(chunk);
+        chunk.clear();
+
+        try {
+            saveNewItems(items, userEntity);
+            report.imported(items.size());
+        } catch (DataIntegrityViolationException e) {
+            // сущности неудачной попытки уже получили id, поэтому каждая строка строится заново
+            for (var item : items) {
+                try {
+                    saveNewItems(List.of(item), userEntity);
+                    report.imported(1);
+                } catch (DataIntegrityViolationException rowException) {
+                    report.reject(item.line(), "Вещь не сохранена: нарушены ограничения БД");
+                }
+            }
+        }
+    }
+
+    private void saveNewItems(List<ImportedItem> items, UserEntity userEntity) {
+        var itemEntities = items
+                .stream()
+                .map(i -> itemMapper.toEntity(i.dto(), userEntity))
+                .toList();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            itemStorage.updateItems(itemEntities);
+            itemViews.onItemsSaved(itemEntities);
+            itemRequestMatcher.onItemsSaved(itemEntities);
+        });
+    }
+
+    private record ImportedItem(long line, ItemDto dto) {
+    }
 }
@@ -2,15 +2,28 @@ package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.item.storage.CommentEntity;
 import ru.practicum.shareit.item.storage.ItemEntity;
+import ru.practicum.shareit.tool.KeysetCursor;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ItemStorage {
     Optional<ItemEntity> getItem(long itemId);
 
     void updateItem(ItemEntity itemEntity);
 
+    void updateItems(Collection<ItemEntity> itemEntities);
+
+    /**
+     * Блокирует строку вещи до конца текущей транзакции.
+     */
+    void lockItem(long itemId);
+
+    /**
+     * Сохраняет комментарий и поднимает версию вещи: комментарии входят в ее представление.
+     */
     void updateComment(CommentEntity commentEntity);
 
     Optional<ItemEntity> deleteItem(long itemId);
@@ -19,6 +32,29 @@ public interface ItemStorage {
 
     List<ItemEntity> getItemsForOwner(long userId);
 
-    List<ItemEntity> findItemsByTextAndStatus(String text, boolean available);
+    List<CommentEntity> getCommentsForItems(Collection<Long> itemIds);
+
+    /**
+     * Вещи, добавленные в ответ на запросы, одним запросом.
+     */
+    List<ItemEntity> getItemsForRequests(Collection<Long> requestIds);
+
+    /**
+     * Страница комментариев вещи от новых к старым, авторы загружаются тем же запросом.
+     */
+    List<CommentEntity> getCommentsPage(long itemId, KeysetCursor after, int size);
+
+    /**
+     * Меняет версию вещей, которые комментировал пользователь, например после смены его имени.
+     * Возвращает id этих вещей.
+     */
+    List<Long> touchItemsCommentedBy(long userId);
+
+    List<ItemEntity> findItemsByTextAndStatus(String text, boolean available, int from, int size);
+
+    /**
+     * Обходит вещи владельца в порядке id, не загружая их списком. Вызывается внутри транзакции.
+     */
+    void forEachItemOfOwner(long ownerId, Consumer<ItemEntity> action);
 
 }
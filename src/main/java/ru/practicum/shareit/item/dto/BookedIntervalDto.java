@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+public record BookedIntervalDto(
+    long bookingId,
+    LocalDateTime start,
+    LocalDateTime end
+) { }
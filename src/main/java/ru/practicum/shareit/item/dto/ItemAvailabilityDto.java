@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Builder
+public record ItemAvailabilityDto(
+    long itemId,
+    LocalDateTime from,
+    LocalDateTime to,
+    boolean free,
+    List<BookedIntervalDto> bookings
+) { }
@@ -2,18 +2,20 @@ package ru.practicum.shareit.item.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Builder;
 
-import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Builder(toBuilder = true)
 public record ItemDto(
     Long id,
-    @NotBlank String name,
-    @NotBlank String description,
+    @NotBlank @Size(max = 100) String name,
+    @NotBlank @Size(max = 100) String description,
     @NotNull Boolean available,
-    Timestamp lastBooking,
-    Timestamp nextBooking,
-    List<CommentDto> comments
+    LocalDateTime lastBooking,
+    LocalDateTime nextBooking,
+    List<CommentDto> comments,
+    Long requestId
 ) { }
@@ -1,11 +1,12 @@
 package ru.practicum.shareit.item.dto;
 
+import jakarta.validation.constraints.Size;
 import lombok.Builder;
 
 @Builder
 public record ItemToUpdateDto(
     Long itemId,
-    String name,
-    String description,
+    @Size(max = 100) String name,
+    @Size(max = 100) String description,
     Boolean available
 ) { }
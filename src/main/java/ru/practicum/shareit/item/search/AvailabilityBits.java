@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Битовая карта доступности вещей по id. Чтение идет без блокировок,
+ * запись и расширение сериализованы, чтобы расширение не теряло изменения.
+ */
+final class AvailabilityBits {
+    private volatile AtomicLongArray words = new AtomicLongArray(1024);
+
+    boolean get(long id) {
+        var current = words;
+        var index = (int) (id >>> 6);
+
+        return index < current.length() && (current.get(index) & (1L << id)) != 0;
+    }
+
+    synchronized void set(long id, boolean available) {
+        var index = (int) (id >>> 6);
+        var current = words;
+
+        if (index >= current.length()) {
+            var grown = new AtomicLongArray(Math.max(index + 1, current.length() * 2));
+
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+
+            words = grown;
+            current = grown;
+        }
+
+        var mask = 1L << id;
+        var word = current.get(index);
+
+        current.set(index, available ? word | mask : word & ~mask);
+    }
+}
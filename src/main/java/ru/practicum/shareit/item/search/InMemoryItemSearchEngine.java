@@ -0,0 +1,255 @@
+package ru.practicum.shareit.item.search;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.ItemSearchEngine;
+import ru.practicum.shareit.item.storage.ItemEntity;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.item.storage.ItemSearchFields;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Инвертированный индекс по триграммам названия и описания.
+ * Списки вхождений хранятся как отсортированные long[] и заменяются целиком при записи,
+ * поэтому поиск идет без блокировок. Записи по одной вещи сериализуются через documents.compute.
+ * Кандидаты берутся из пересечения списков триграмм запроса, фильтруются по битовой карте
+ * доступности и проверяются на вхождение подстроки.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+    private static final int GRAM = 3;
+    private static final int REBUILD_CHUNK_SIZE = 10_000;
+
+    private final ItemRepository itemRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final Map<String, LongPostings> postings = new ConcurrentHashMap<>();
+    private final AvailabilityBits availability = new AvailabilityBits();
+
+    @PostConstruct
+    public void rebuild() {
+        var chunks = new ArrayList<CompletableFuture<Map<String, LongList>>>();
+        var transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        transaction.executeWithoutResult(status -> {
+            try (var fields = itemRepository.streamSearchFields()) {
+                var chunk = new ArrayList<Document>(REBUILD_CHUNK_SIZE);
+                var iterator = fields.iterator();
+
+                while (iterator.hasNext()) {
+                    var document = Document.of(iterator.next());
+
+                    documents.put(document.id(), document);
+                    availability.set(document.id(), document.available());
+                    chunk.add(document);
+
+                    if (chunk.size() == REBUILD_CHUNK_SIZE || !iterator.hasNext()) {
+                        var full = chunk;
+                        chunks.add(CompletableFuture.supplyAsync(() -> invert(full)));
+                        chunk = new ArrayList<>(REBUILD_CHUNK_SIZE);
+                    }
+                }
+            }
+        });
+
+        var merged = new HashMap<String, LongList>();
+
+        for (var chunk : chunks) {
+            chunk.join().forEach((gram, ids) -> merged.merge(gram, ids, LongList::addAll));
+        }
+
+        merged.entrySet()
+                .parallelStream()
+                .forEach(e -> postings.put(e.getKey(), LongPostings.ofSorted(e.getValue().toSortedArray())));
+
+        log.debug("Индекс поиска вещей построен: {} документов, {} триграмм", documents.size(), postings.size());
+    }
+
+    @Override
+    public List<Long> search(String text, boolean available, int from, int size) {
+        var query = text.toLowerCase();
+
+        return Arrays.stream(candidates(query))
+                .filter(id -> availability.get(id) == available)
+                .mapToObj(documents::get)
+                .filter(d -> d != null && d.score(query) > 0)
+                .sorted(Comparator.comparingInt((Document d) -> d.score(query)).reversed()
+                        .thenComparingLong(Document::id))
+                .skip(from)
+                .limit(size)
+                .map(Document::id)
+                .toList();
+    }
+
+    @Override
+    public void index(ItemEntity itemEntity) {
+        var document = Document.of(itemEntity);
+        var id = document.id();
+
+        documents.compute(id, (key, old) -> {
+            var oldGrams = old == null ? Set.<String>of() : old.allGrams();
+            var newGrams = document.allGrams();
+
+            for (var gram : oldGrams) {
+                if (!newGrams.contains(gram))
+                    removePosting(gram, id);
+            }
+
+            for (var gram : newGrams) {
+                if (!oldGrams.contains(gram))
+                    postings.compute(gram, (k, ids) -> (ids == null ? LongPostings.EMPTY : ids).with(id));
+            }
+
+            availability.set(id, document.available());
+
+            return document;
+        });
+    }
+
+    @Override
+    public void remove(long itemId) {
+        documents.computeIfPresent(itemId, (key, old) -> {
+            for (var gram : old.allGrams()) {
+                removePosting(gram, itemId);
+            }
+
+            availability.set(itemId, false);
+
+            return null;
+        });
+    }
+
+    private void removePosting(String gram, long id) {
+        postings.computeIfPresent(gram, (k, ids) -> {
+            var updated = ids.without(id);
+
+            return updated.size() == 0 ? null : updated;
+        });
+    }
+
+    private long[] candidates(String query) {
+        if (query.length() < GRAM) {
+            return documents.keySet()
+                    .stream()
+                    .mapToLong(Long::longValue)
+                    .toArray();
+        }
+
+        var lists = grams(query)
+                .stream()
+                .map(gram -> postings.getOrDefault(gram, LongPostings.EMPTY))
+                .toArray(LongPostings[]::new);
+
+        var smallest = Arrays.stream(lists)
+                .min(Comparator.comparingInt(LongPostings::size))
+                .orElse(LongPostings.EMPTY);
+
+        return smallest.intersect(lists);
+    }
+
+    private static Map<String, LongList> invert(List<Document> chunk) {
+        var inverted = new HashMap<String, LongList>();
+
+        for (var document : chunk) {
+            for (var gram : document.allGrams()) {
+                inverted.computeIfAbsent(gram, k -> new LongList()).add(document.id());
+            }
+        }
+
+        return inverted;
+    }
+
+    private static Set<String> grams(String text) {
+        var grams = new HashSet<String>();
+
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+
+        return grams;
+    }
+
+    private record Document(long id, String name, String description, boolean available) {
+        static Document of(ItemEntity itemEntity) {
+            return of(itemEntity.getId(), itemEntity.getName(), itemEntity.getDescription(), itemEntity.isAvailable());
+        }
+
+        static Document of(ItemSearchFields fields) {
+            return of(fields.getId(), fields.getName(), fields.getDescription(), Boolean.TRUE.equals(fields.getAvailable()));
+        }
+
+        private static Document of(long id, String name, String description, boolean available) {
+            return new Document(
+                    id,
+                    name.toLowerCase(),
+                    description == null ? "" : description.toLowerCase(),
+                    available);
+        }
+
+        Set<String> allGrams() {
+            var grams = grams(name);
+            grams.addAll(grams(description));
+
+            return grams;
+        }
+
+        int score(String query) {
+            var score = 0;
+
+            if (name.contains(query))
+                score += name.startsWith(query) ? 3 : 2;
+            if (description.contains(query))
+                score += 1;
+
+            return score;
+        }
+    }
+
+    private static final class LongList {
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+
+            values[size++] = value;
+        }
+
+        LongList addAll(LongList other) {
+            if (size + other.size > values.length)
+                values = Arrays.copyOf(values, Math.max(size + other.size, size * 2));
+
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+
+            return this;
+        }
+
+        long[] toSortedArray() {
+            var sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+
+            return sorted;
+        }
+    }
+}
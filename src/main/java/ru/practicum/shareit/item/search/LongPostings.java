@@ -0,0 +1,84 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+
+/**
+ * Неизменяемый отсортированный список id на примитивном long[].
+ * Изменения создают новую копию, поэтому читать можно без блокировок.
+ */
+final class LongPostings {
+    static final LongPostings EMPTY = new LongPostings(new long[0]);
+
+    private final long[] ids;
+
+    private LongPostings(long[] ids) {
+        this.ids = ids;
+    }
+
+    static LongPostings ofSorted(long[] ids) {
+        return new LongPostings(ids);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    LongPostings with(long id) {
+        var position = Arrays.binarySearch(ids, id);
+
+        if (position >= 0)
+            return this;
+
+        var insertAt = -position - 1;
+        var copy = new long[ids.length + 1];
+        System.arraycopy(ids, 0, copy, 0, insertAt);
+        copy[insertAt] = id;
+        System.arraycopy(ids, insertAt, copy, insertAt + 1, ids.length - insertAt);
+
+        return new LongPostings(copy);
+    }
+
+    LongPostings without(long id) {
+        var position = Arrays.binarySearch(ids, id);
+
+        if (position < 0)
+            return this;
+
+        if (ids.length == 1)
+            return EMPTY;
+
+        var copy = new long[ids.length - 1];
+        System.arraycopy(ids, 0, copy, 0, position);
+        System.arraycopy(ids, position + 1, copy, position, ids.length - position - 1);
+
+        return new LongPostings(copy);
+    }
+
+    /**
+     * Пересечение с остальными списками; this должен быть самым коротким.
+     */
+    long[] intersect(LongPostings[] others) {
+        var result = new long[ids.length];
+        var count = 0;
+
+        for (var id : ids) {
+            var inAll = true;
+
+            for (var other : others) {
+                if (other != this && !other.contains(id)) {
+                    inAll = false;
+                    break;
+                }
+            }
+
+            if (inAll)
+                result[count++] = id;
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.ItemSearchEngine;
+import ru.practicum.shareit.item.storage.ItemEntity;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Поиск средствами PostgreSQL: like по lower(name)/lower(description) обслуживают
+ * trigram GIN-индексы из миграции db/migration/postgresql, ранжирование по similarity().
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres")
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Long> search(String text, boolean available, int from, int size) {
+        return itemRepository.findIdsByTextRanked(text, likePattern(text), available, from, size);
+    }
+
+    @Override
+    public void index(ItemEntity itemEntity) {
+        // индексы БД обновляются вместе с таблицей
+    }
+
+    @Override
+    public void remove(long itemId) {
+        // индексы БД обновляются вместе с таблицей
+    }
+
+    /**
+     * Символы шаблона like в тексте пользователя ищутся буквально, как и в InMemoryItemSearchEngine.
+     */
+    static String likePattern(String text) {
+        return text
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
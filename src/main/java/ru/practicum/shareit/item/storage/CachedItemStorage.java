@@ -0,0 +1,174 @@
+package ru.practicum.shareit.item.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.tool.AfterCommit;
+import ru.practicum.shareit.tool.KeysetCursor;
+import ru.practicum.shareit.tool.PrimaryReads;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Кэш вещей поверх хранилища в БД. Наружу отдаются копии без комментариев,
+ * комментарии читаются через getCommentsForItems. Промах кэша читается из основной БД.
+ */
+@Component
+@Qualifier("CachedItemStorage")
+@Primary
+public class CachedItemStorage implements ItemStorage {
+    private final ItemStorage itemStorage;
+    private final PrimaryReads primaryReads;
+    private final Cache<Long, ItemEntity> items;
+
+    public CachedItemStorage(
+            @Qualifier("ItemStorageInDb") ItemStorage itemStorage,
+            PrimaryReads primaryReads,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.cache.maximum-size:10000}") long maximumSize,
+            @Value("${shareit.cache.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.itemStorage = itemStorage;
+        this.primaryReads = primaryReads;
+        this.items = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, items, "items");
+    }
+
+    @Override
+    public Optional<ItemEntity> getItem(long itemId) {
+        var cached = items.getIfPresent(itemId);
+
+        if (cached != null)
+            return Optional.of(copy(cached));
+
+        var itemEntity = primaryReads.read(() -> itemStorage.getItem(itemId)
+                .map(CachedItemStorage::copy));
+
+        itemEntity.ifPresent(i -> items.put(itemId, copy(i)));
+
+        return itemEntity;
+    }
+
+    @Override
+    public void updateItem(ItemEntity itemEntity) {
+        try {
+            itemStorage.updateItem(itemEntity);
+        } finally {
+            if (itemEntity.getId() != null)
+                invalidate(itemEntity.getId());
+        }
+    }
+
+    @Override
+    public void updateItems(Collection<ItemEntity> itemEntities) {
+        try {
+            itemStorage.updateItems(itemEntities);
+        } finally {
+            itemEntities
+                    .stream()
+                    .filter(i -> i.getId() != null)
+                    .forEach(i -> invalidate(i.getId()));
+        }
+    }
+
+    @Override
+    public void lockItem(long itemId) {
+        itemStorage.lockItem(itemId);
+    }
+
+    @Override
+    public void updateComment(CommentEntity commentEntity) {
+        try {
+            itemStorage.updateComment(commentEntity);
+        } finally {
+            invalidate(commentEntity.getItem().getId());
+        }
+    }
+
+    @Override
+    public List<Long> touchItemsCommentedBy(long userId) {
+        var itemIds = itemStorage.touchItemsCommentedBy(userId);
+
+        itemIds.forEach(this::invalidate);
+
+        return itemIds;
+    }
+
+    @Override
+    public Optional<ItemEntity> deleteItem(long itemId) {
+        try {
+            return itemStorage.deleteItem(itemId);
+        } finally {
+            invalidate(itemId);
+        }
+    }
+
+    @Override
+    public Optional<CommentEntity> deleteComment(long commentId) {
+        return itemStorage.deleteComment(commentId);
+    }
+
+    @Override
+    public List<ItemEntity> getItemsForOwner(long userId) {
+        return itemStorage.getItemsForOwner(userId);
+    }
+
+    @Override
+    public List<CommentEntity> getCommentsForItems(Collection<Long> itemIds) {
+        return itemStorage.getCommentsForItems(itemIds);
+    }
+
+    @Override
+    public List<ItemEntity> getItemsForRequests(Collection<Long> requestIds) {
+        return itemStorage.getItemsForRequests(requestIds);
+    }
+
+    @Override
+    public List<CommentEntity> getCommentsPage(long itemId, KeysetCursor after, int size) {
+        return itemStorage.getCommentsPage(itemId, after, size);
+    }
+
+    @Override
+    public List<ItemEntity> findItemsByTextAndStatus(String text, boolean available, int from, int size) {
+        return itemStorage.findItemsByTextAndStatus(text, available, from, size);
+    }
+
+    @Override
+    public void forEachItemOfOwner(long ownerId, Consumer<ItemEntity> action) {
+        itemStorage.forEachItemOfOwner(ownerId, action);
+    }
+
+    private void invalidate(long itemId) {
+        // второй раз после коммита: до него другой поток мог перечитать и закэшировать старую запись
+        items.invalidate(itemId);
+        AfterCommit.run(() -> items.invalidate(itemId));
+    }
+
+    private static ItemEntity copy(ItemEntity itemEntity) {
+        var copy = new ItemEntity();
+        copy.setId(itemEntity.getId());
+        copy.setOwner(itemEntity.getOwner());
+        copy.setName(itemEntity.getName());
+        copy.setDescription(itemEntity.getDescription());
+        copy.setAvailable(itemEntity.isAvailable());
+        copy.setRequest(itemEntity.getRequest());
+        copy.setVersion(itemEntity.getVersion());
+        copy.setUpdated(itemEntity.getUpdated());
+
+        return copy;
+    }
+}
@@ -1,9 +1,62 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<CommentEntity, Long> {
     List<CommentEntity> findAllByItemId(long itemId);
+
+    @Query("select distinct c.item.id from CommentEntity c where c.user.id = :userId")
+    List<Long> findItemIdsByUserId(@Param("userId") long userId);
+
+    @Query("select c " +
+            "from CommentEntity c " +
+            "   join fetch c.user " +
+            "where c.item.id in :itemIds " +
+            "order by c.created")
+    List<CommentEntity> findAllByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("select c " +
+            "from CommentEntity c " +
+            "   join fetch c.user " +
+            "where c.item.id = :itemId " +
+            "   and (c.created < :created or (c.created = :created and c.id < :id)) " +
+            "order by c.created desc, c.id desc")
+    List<CommentEntity> findPageByItemId(
+            @Param("itemId") long itemId,
+            @Param("created") Timestamp created,
+            @Param("id") long id,
+            Limit limit);
+
+    /**
+     * Последние limit комментариев каждой из вещей, по индексу (item_id, created, comment_id).
+     */
+    @Query(value = "select l.comment_id " +
+            "from (select c.comment_id, " +
+            "             row_number() over (" +
+            "                 partition by c.item_id order by c.created desc, c.comment_id desc) as position " +
+            "      from Comments c " +
+            "      where c.item_id in (:itemIds)) l " +
+            "where l.position <= :limit",
+            nativeQuery = true)
+    List<Long> findLatestIdsByItemIdIn(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    @Query("select c " +
+            "from CommentEntity c " +
+            "   join fetch c.user " +
+            "where c.id in :ids " +
+            "order by c.created, c.id")
+    List<CommentEntity> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select c.item.id as itemId, count(c) as count " +
+            "from CommentEntity c " +
+            "where c.item.id in :itemIds " +
+            "group by c.item.id")
+    List<CommentCount> countByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
 }
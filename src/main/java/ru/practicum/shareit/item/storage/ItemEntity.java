@@ -2,8 +2,11 @@ package ru.practicum.shareit.item.storage;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.UpdateTimestamp;
+import ru.practicum.shareit.request.storage.ItemRequestEntity;
 import ru.practicum.shareit.user.storage.UserEntity;
 
+import java.time.Instant;
 import java.util.List;
 
 @Entity
@@ -11,7 +14,8 @@ import java.util.List;
 @Data
 public class ItemEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     @Column(name = "item_id")
     private Long id;
 
@@ -26,6 +30,15 @@ public class ItemEntity {
     @Column
     private boolean available;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "request_id")
+    private ItemRequestEntity request;
+
+    @Version
+    private long version;
+    @UpdateTimestamp
+    private Instant updated;
+
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "item")
     private List<CommentEntity> comments;
 
@@ -1,54 +1,74 @@
 package ru.practicum.shareit.item.storage;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
-import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ItemRepository extends JpaRepository<ItemEntity, Long> {
-    @Query("select i " +
-            "from ItemEntity i " +
-            "where (   lower(i.name) like lower(concat('%', :text,'%')) " +
-            "       or lower(i.description) like lower(concat('%', :text,'%'))) " +
-            "      and i.available = :available")
-    List<ItemEntity> findByTextAndAvailable(
+    /**
+     * pattern - искомый текст, в котором %, _ и \ экранированы обратной косой чертой,
+     * text - он же без экранирования для ранжирования.
+     */
+    @Query(value = "select i.item_id " +
+            "from Items i " +
+            "where i.available = :available " +
+            "   and (   lower(i.name) like '%' || lower(:pattern) || '%' escape '\\' " +
+            "        or lower(i.description) like '%' || lower(:pattern) || '%' escape '\\') " +
+            "order by greatest(similarity(lower(i.name), lower(:text)), " +
+            "                  similarity(lower(i.description), lower(:text))) desc, i.item_id " +
+            "offset :from limit :size",
+            nativeQuery = true)
+    List<Long> findIdsByTextRanked(
             @Param("text") String text,
-            @Param("available") boolean available);
+            @Param("pattern") String pattern,
+            @Param("available") boolean available,
+            @Param("from") int from,
+            @Param("size") int size);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select i.id as id, i.name as name, i.description as description, i.available as available " +
+            "from ItemEntity i")
+    Stream<ItemSearchFields> streamSearchFields();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select i from ItemEntity i where i.owner.id = :ownerId order by i.id")
+    Stream<ItemEntity> streamByOwnerId(@Param("ownerId") long ownerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from ItemEntity i where i.id = :itemId")
+    Optional<ItemEntity> findAndLockById(@Param("itemId") long itemId);
 
     boolean existsByOwnerId(long userId);
 
-    @Query("select max(b.end) " +
-            "from ItemEntity i " +
-            "   join BookingEntity b " +
-            "where i.id = :itemId " +
-            "   and b.end < :date")
-    Optional<Timestamp> getLastBooking(
-            @Param("itemId") long itemId,
-            @Param("date") Timestamp date);
-
-    @Query("select min(b.start) " +
-            "from ItemEntity i " +
-            "   join BookingEntity b " +
-            "where i.id = :itemId " +
-            "   and b.start > :date")
-    Optional<Timestamp> getNextBooking(
-            @Param("itemId") long itemId,
-            @Param("date") Timestamp date);
-
-    @Query("select i, max(bLast.end), min(bNext.start) " +
-            "from ItemEntity i " +
-            "   left join BookingEntity bLast " +
-            "   left join BookingEntity bNext " +
-            "where i.owner = :owner " +
-            "    and bLast.end < :date" +
-            "    and bNext.start > :date " +
-            "group by i")
-    List<ItemWithDateOfBookings> findItemsByOwnerWithDatesOfBooking(
-            @Param("owner") long ownerId,
-            @Param("date") Timestamp date);
+    @Modifying
+    @Query("update ItemEntity i set i.version = i.version + 1, i.updated = :updated where i.id = :itemId")
+    void touch(@Param("itemId") long itemId, @Param("updated") Instant updated);
+
+    @Modifying
+    @Query("update ItemEntity i set i.version = i.version + 1, i.updated = :updated where i.id in :itemIds")
+    void touchAll(@Param("itemIds") Collection<Long> itemIds, @Param("updated") Instant updated);
 
     List<ItemEntity> findByOwnerId(long userId);
+
+    @Query("select i from ItemEntity i where i.request.id in :requestIds order by i.id")
+    List<ItemEntity> findAllByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
+
+    @Query("select i.id from ItemEntity i where i.owner.id = :ownerId order by i.id")
+    List<Long> findIdsByOwnerId(@Param("ownerId") long ownerId);
 }
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.storage;
+
+public interface ItemSearchFields {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+}
@@ -1,26 +1,39 @@
 package ru.practicum.shareit.item.storage;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemSearchEngine;
 import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.tool.AfterCommit;
+import ru.practicum.shareit.tool.EntityStreams;
+import ru.practicum.shareit.tool.KeysetCursor;
 import ru.practicum.shareit.user.storage.UserRepository;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 @Qualifier("ItemStorageInDb")
-@Primary
 public class ItemStorageInDb implements ItemStorage {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final EntityManager entityManager;
     private final ItemMapper itemMapper = new ItemMapper();
     private final CommentMapper commentMapper = new CommentMapper();
 
@@ -31,12 +44,35 @@ public class ItemStorageInDb implements ItemStorage {
 
     @Override
     public void updateItem(ItemEntity itemEntity) {
-        itemRepository.saveAndFlush(itemEntity);
+        itemRepository.save(itemEntity);
+        AfterCommit.run(() -> itemSearchEngine.index(itemEntity));
+    }
+
+    @Override
+    public void updateItems(Collection<ItemEntity> itemEntities) {
+        itemRepository.saveAll(itemEntities);
+        AfterCommit.run(() -> itemEntities.forEach(itemSearchEngine::index));
+    }
+
+    @Override
+    public void lockItem(long itemId) {
+        itemRepository.findAndLockById(itemId);
     }
 
     @Override
     public void updateComment(CommentEntity commentEntity) {
-        commentRepository.saveAndFlush(commentEntity);
+        commentRepository.save(commentEntity);
+        itemRepository.touch(commentEntity.getItem().getId(), Instant.now());
+    }
+
+    @Override
+    public List<Long> touchItemsCommentedBy(long userId) {
+        var itemIds = commentRepository.findItemIdsByUserId(userId);
+
+        if (!itemIds.isEmpty())
+            itemRepository.touchAll(itemIds, Instant.now());
+
+        return itemIds;
     }
 
     @Override
@@ -45,6 +81,7 @@ public class ItemStorageInDb implements ItemStorage {
 
         if (entity.isPresent()) {
             itemRepository.deleteById(itemId);
+            AfterCommit.run(() -> itemSearchEngine.remove(itemId));
         }
 
         return entity;
@@ -67,7 +104,43 @@ public class ItemStorageInDb implements ItemStorage {
     }
 
     @Override
-    public List<ItemEntity> findItemsByTextAndStatus(String text, boolean available) {
-        return itemRepository.findByTextAndAvailable(text, available);
+    public List<CommentEntity> getCommentsForItems(Collection<Long> itemIds) {
+        if (itemIds.isEmpty())
+            return List.of();
+
+        return commentRepository.findAllByItemIdIn(itemIds);
+    }
+
+    @Override
+    public List<ItemEntity> getItemsForRequests(Collection<Long> requestIds) {
+        if (requestIds.isEmpty())
+            return List.of();
+
+        return itemRepository.findAllByRequestIdIn(requestIds);
+    }
+
+    @Override
+    public List<CommentEntity> getCommentsPage(long itemId, KeysetCursor after, int size) {
+        return commentRepository.findPageByItemId(itemId, Timestamp.valueOf(after.time()), after.id(), Limit.of(size));
+    }
+
+    @Override
+    public List<ItemEntity> findItemsByTextAndStatus(String text, boolean available, int from, int size) {
+        var itemIds = itemSearchEngine.search(text, available, from, size);
+
+        var itemsById = itemRepository.findAllById(itemIds)
+                .stream()
+                .collect(Collectors.toMap(ItemEntity::getId, Function.identity()));
+
+        return itemIds
+                .stream()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public void forEachItemOfOwner(long ownerId, Consumer<ItemEntity> action) {
+        EntityStreams.forEach(entityManager, itemRepository.streamByOwnerId(ownerId), action);
     }
 }
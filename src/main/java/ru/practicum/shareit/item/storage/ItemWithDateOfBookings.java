@@ -1,11 +0,0 @@
-package ru.practicum.shareit.item.storage;
-
-import java.sql.Timestamp;
-
-public interface ItemWithDateOfBookings {
-    ItemEntity getItemEntity();
-
-    Timestamp getLastDateBooking();
-
-    Timestamp getNextDateBooking();
-}
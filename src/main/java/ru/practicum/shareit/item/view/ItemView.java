@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.view;
+
+import ru.practicum.shareit.item.dto.CommentDto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Готовое к выдаче представление вещи с последними комментариями в порядке создания
+ * и общим числом комментариев.
+ */
+public record ItemView(
+        long id,
+        long ownerId,
+        String name,
+        String description,
+        boolean available,
+        Long requestId,
+        long version,
+        Instant updated,
+        List<CommentDto> latestComments,
+        long commentCount
+) {
+    public boolean hasAllComments() {
+        return latestComments.size() == commentCount;
+    }
+}
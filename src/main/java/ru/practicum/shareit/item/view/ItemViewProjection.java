@@ -0,0 +1,216 @@
+package ru.practicum.shareit.item.view;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.storage.CommentCount;
+import ru.practicum.shareit.item.storage.CommentEntity;
+import ru.practicum.shareit.item.storage.CommentMapper;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemEntity;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.tool.AfterCommit;
+import ru.practicum.shareit.tool.PrimaryReads;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Представления вещей для чтения: вещь с последними viewComments комментариями и их общим числом
+ * собирается один раз и дальше отдается из памяти, списки вещей владельца хранятся списками id.
+ * После коммита изменения устаревшее представление удаляется, а новое строится в фоне,
+ * если вещь уже читали. Представления читаются из основной БД: пересборка идет в фоне, без
+ * пользователя запроса, и отставшая реплика попала бы в кэш для всех. Даты броней сюда не входят,
+ * они берутся из календарей ItemAvailabilityIndex.
+ */
+@Component
+public class ItemViewProjection {
+    private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final PrimaryReads primaryReads;
+    private final CommentMapper commentMapper = new CommentMapper();
+    private final int viewComments;
+    private final LoadingCache<Long, ItemView> views;
+    private final LoadingCache<Long, List<Long>> ownerItems;
+
+    public ItemViewProjection(
+            ItemRepository itemRepository,
+            CommentRepository commentRepository,
+            PrimaryReads primaryReads,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.cache.maximum-size:10000}") long maximumSize,
+            @Value("${shareit.cache.expire-after-write:PT10M}") Duration expireAfterWrite,
+            @Value("${shareit.items.view-comments:20}") int viewComments) {
+        this.itemRepository = itemRepository;
+        this.commentRepository = commentRepository;
+        this.viewComments = viewComments;
+        this.primaryReads = primaryReads;
+
+        // срок жизни ограничивает устаревание, если пакетная загрузка разминулась с удалением после коммита
+        this.views = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public ItemView load(Long itemId) {
+                        return loadAll(Set.of(itemId)).get(itemId);
+                    }
+
+                    @Override
+                    public Map<Long, ItemView> loadAll(Set<? extends Long> itemIds) {
+                        return primaryReads.read(() -> build(itemIds));
+                    }
+                });
+        this.ownerItems = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(ownerId -> primaryReads.read(() -> List.copyOf(itemRepository.findIdsByOwnerId(ownerId))));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, views, "item_views");
+        CaffeineCacheMetrics.monitor(meterRegistry, ownerItems, "owner_items");
+    }
+
+    public Optional<ItemView> get(long itemId) {
+        return Optional.ofNullable(views.get(itemId));
+    }
+
+    /**
+     * Вещи владельца в порядке id. Недостающие представления загружаются одним запросом.
+     */
+    public List<ItemView> getForOwner(long ownerId) {
+        var itemIds = ownerItems.get(ownerId);
+        var found = views.getAll(itemIds);
+
+        return itemIds
+                .stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public void onItemSaved(ItemEntity itemEntity) {
+        onItemsSaved(List.of(itemEntity));
+    }
+
+    public void onItemsSaved(Collection<ItemEntity> itemEntities) {
+        var itemIds = itemEntities
+                .stream()
+                .map(ItemEntity::getId)
+                .toList();
+        var ownerIds = itemEntities
+                .stream()
+                .map(i -> i.getOwner().getId())
+                .collect(Collectors.toSet());
+
+        AfterCommit.run(() -> {
+            ownerItems.invalidateAll(ownerIds);
+            itemIds.forEach(this::rebuild);
+        });
+    }
+
+    public void onItemDeleted(ItemEntity itemEntity) {
+        var itemId = itemEntity.getId();
+        var ownerId = itemEntity.getOwner().getId();
+
+        AfterCommit.run(() -> {
+            views.invalidate(itemId);
+            ownerItems.invalidate(ownerId);
+        });
+    }
+
+    public void onCommentAdded(CommentEntity commentEntity) {
+        var itemId = commentEntity.getItem().getId();
+
+        AfterCommit.run(() -> rebuild(itemId));
+    }
+
+    /**
+     * Имя автора хранится в комментариях представления, поэтому после изменения пользователя
+     * перестраиваются вещи, которые он комментировал (ItemStorage.touchItemsCommentedBy).
+     */
+    public void onAuthorUpdated(Collection<Long> itemIds) {
+        var ids = List.copyOf(itemIds);
+
+        AfterCommit.run(() -> ids.forEach(this::rebuild));
+    }
+
+    private void rebuild(long itemId) {
+        // старое представление удаляется сразу, чтобы автор изменения его уже не увидел
+        if (views.asMap().remove(itemId) != null)
+            views.refresh(itemId);
+    }
+
+    private Map<Long, ItemView> build(Collection<? extends Long> itemIds) {
+        var itemEntities = itemRepository.findAllById(List.copyOf(itemIds));
+
+        if (itemEntities.isEmpty())
+            return Map.of();
+
+        var countsByItemId = commentRepository.countByItemIdIn(List.copyOf(itemIds))
+                .stream()
+                .collect(Collectors.toMap(CommentCount::getItemId, CommentCount::getCount));
+
+        // комментарии вещей, у которых их немного, читаются одним запросом, у остальных - последние по индексу,
+        // тоже для всех таких вещей сразу
+        var itemIdsByFewComments = countsByItemId.entrySet()
+                .stream()
+                .collect(Collectors.partitioningBy(
+                        e -> e.getValue() <= viewComments,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+
+        var commentsByItemId = new HashMap<Long, List<CommentEntity>>();
+
+        if (!itemIdsByFewComments.get(true).isEmpty()) {
+            commentsByItemId.putAll(commentRepository.findAllByItemIdIn(itemIdsByFewComments.get(true))
+                    .stream()
+                    .collect(Collectors.groupingBy(c -> c.getItem().getId())));
+        }
+
+        if (!itemIdsByFewComments.get(false).isEmpty()) {
+            var latestIds = commentRepository.findLatestIdsByItemIdIn(itemIdsByFewComments.get(false), viewComments);
+
+            commentsByItemId.putAll(commentRepository.findAllByIdIn(latestIds)
+                    .stream()
+                    .collect(Collectors.groupingBy(c -> c.getItem().getId())));
+        }
+
+        return itemEntities
+                .stream()
+                .map(i -> toView(
+                        i,
+                        commentsByItemId.getOrDefault(i.getId(), List.of()),
+                        countsByItemId.getOrDefault(i.getId(), 0L)))
+                .collect(Collectors.toMap(ItemView::id, Function.identity()));
+    }
+
+    private ItemView toView(ItemEntity itemEntity, List<CommentEntity> commentEntities, long commentCount) {
+        return new ItemView(
+                itemEntity.getId(),
+                itemEntity.getOwner().getId(),
+                itemEntity.getName(),
+                itemEntity.getDescription(),
+                itemEntity.isAvailable(),
+                itemEntity.getRequest() == null ? null : itemEntity.getRequest().getId(),
+                itemEntity.getVersion(),
+                itemEntity.getUpdated(),
+                commentEntities
+                        .stream()
+                        .map(commentMapper::toDto)
+                        .toList(),
+                commentCount);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Хранит последние capacity событий в памяти. Получатель по умолчанию, для тестов и локального запуска.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOutboxSink implements OutboxSink {
+    private final int capacity;
+    private final Deque<OutboxEvent> events = new ArrayDeque<>();
+
+    public InMemoryOutboxSink(@Value("${shareit.outbox.memory-capacity:1000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void send(List<OutboxEvent> batch) {
+        for (var event : batch) {
+            if (events.size() == capacity)
+                events.removeFirst();
+
+            events.addLast(event);
+        }
+    }
+
+    public synchronized List<OutboxEvent> getEvents() {
+        return List.copyOf(events);
+    }
+}
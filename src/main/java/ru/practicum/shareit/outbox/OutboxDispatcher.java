@@ -0,0 +1,174 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Разбирает outbox пачками в виртуальном потоке. Поток просыпается после коммита новых событий,
+ * а если сигналов нет - раз в poll-interval, чтобы подобрать события, оставшиеся после сбоя
+ * или записанные другим экземпляром. Пачка читается с блокировкой строк, отдается получателю
+ * и удаляется в одной транзакции; при ошибке получателя она остается в таблице и повторяется
+ * через retry-delay.
+ * Метрики отставания: shareit.outbox.pending - строк в outbox после последней пачки
+ * (считается запросом, только если пачка была полной), shareit.outbox.lag - возраст
+ * самого старого события последней пачки в секундах.
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher implements SmartLifecycle {
+    private final OutboxRepository outboxRepository;
+    private final OutboxSink outboxSink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration retryDelay;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter dispatched;
+    private final Counter failures;
+    private final DistributionSummary batches;
+
+    private volatile Thread thread;
+
+    public OutboxDispatcher(
+            OutboxRepository outboxRepository,
+            OutboxSink outboxSink,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.outbox.batch-size:100}") int batchSize,
+            @Value("${shareit.outbox.poll-interval:PT10S}") Duration pollInterval,
+            @Value("${shareit.outbox.retry-delay:PT1S}") Duration retryDelay) {
+        this.outboxRepository = outboxRepository;
+        this.outboxSink = outboxSink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.retryDelay = retryDelay;
+
+        this.dispatched = meterRegistry.counter("shareit.outbox.dispatched");
+        this.failures = meterRegistry.counter("shareit.outbox.failures");
+        this.batches = DistributionSummary.builder("shareit.outbox.batch")
+                .baseUnit("events")
+                .register(meterRegistry);
+
+        Gauge.builder("shareit.outbox.pending", pending, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("shareit.outbox.lag", lagMillis, l -> l.get() / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Вызывается после коммита транзакции, записавшей событие.
+     */
+    void onPublished() {
+        wakeUp.release();
+    }
+
+    @Override
+    public void start() {
+        // поле заполняется до старта: цикл работает, пока thread не обнулен в stop
+        thread = Thread.ofVirtual()
+                .name("outbox-dispatcher")
+                .unstarted(this::run);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        var current = thread;
+        thread = null;
+
+        if (current == null)
+            return;
+
+        current.interrupt();
+
+        try {
+            current.join(Duration.ofSeconds(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    private void run() {
+        while (thread != null) {
+            try {
+                drain();
+
+                if (wakeUp.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS))
+                    wakeUp.drainPermits();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                if (thread == null)
+                    return;
+
+                failures.increment();
+                log.warn("Не удалось отправить события outbox, повтор через {}", retryDelay, e);
+
+                try {
+                    Thread.sleep(retryDelay);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void drain() {
+        int sent;
+
+        do {
+            sent = transactionTemplate.execute(status -> dispatchBatch());
+
+            if (sent > 0) {
+                dispatched.increment(sent);
+                batches.record(sent);
+            }
+
+            pending.set(sent == batchSize ? outboxRepository.count() : 0);
+        } while (sent == batchSize && thread != null);
+    }
+
+    private int dispatchBatch() {
+        var entities = outboxRepository.findOldest(Limit.of(batchSize));
+
+        if (entities.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+
+        lagMillis.set(Duration.between(entities.get(0).getCreated(), Instant.now()).toMillis());
+
+        outboxSink.send(entities
+                .stream()
+                .map(OutboxEvent::of)
+                .toList());
+
+        outboxRepository.deleteAllInBatch(entities);
+
+        return entities.size();
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "Outbox")
+@Data
+public class OutboxEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+    @Column(name = "event_id")
+    private Long id;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private long aggregateId;
+
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private Instant created;
+
+    public OutboxEntity() {
+
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.outbox;
+
+import java.time.Instant;
+
+/**
+ * Событие, переданное получателю. payload - JSON.
+ */
+public record OutboxEvent(
+        long id,
+        String type,
+        long aggregateId,
+        String payload,
+        Instant created
+) {
+    static OutboxEvent of(OutboxEntity entity) {
+        return new OutboxEvent(
+                entity.getId(),
+                entity.getType(),
+                entity.getAggregateId(),
+                entity.getPayload(),
+                entity.getCreated());
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.tool.AfterCommit;
+
+import java.time.Instant;
+
+/**
+ * Записывает событие в outbox в текущей транзакции. Отправкой занимается OutboxDispatcher,
+ * его будят после коммита, поэтому запрос не ждет получателей.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxPublisher {
+    private final OutboxRepository outboxRepository;
+    private final OutboxDispatcher outboxDispatcher;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String type, long aggregateId, Object payload) {
+        var entity = new OutboxEntity();
+        entity.setType(type);
+        entity.setAggregateId(aggregateId);
+        entity.setPayload(toJson(payload));
+        entity.setCreated(Instant.now());
+
+        outboxRepository.save(entity);
+
+        AfterCommit.run(outboxDispatcher::onPublished);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Событие не сериализуется в JSON", e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+
+public interface OutboxRepository extends JpaRepository<OutboxEntity, Long> {
+    /**
+     * Самые старые события. Строки, заблокированные другим экземпляром приложения, пропускаются
+     * (таймаут блокировки -2 - SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEntity e order by e.id")
+    List<OutboxEntity> findOldest(Limit limit);
+}
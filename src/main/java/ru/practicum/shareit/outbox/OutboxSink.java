@@ -0,0 +1,11 @@
+package ru.practicum.shareit.outbox;
+
+import java.util.List;
+
+/**
+ * Получатель событий из outbox. Пачка удаляется из таблицы, только если send завершился без исключения,
+ * иначе она будет отправлена повторно, поэтому получатель должен переносить повторы (по id события).
+ */
+public interface OutboxSink {
+    void send(List<OutboxEvent> events);
+}
@@ -1,12 +1,58 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.tool.KeysetCursor;
+
+import java.util.List;
 
-/**
- * TODO Sprint add-item-requests.
- */
 @RestController
 @RequestMapping(path = "/requests")
+@RequiredArgsConstructor
 public class ItemRequestController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final ItemRequestService itemRequestService;
+
+    @PostMapping
+    public ItemRequestDto postRequest(
+            @Valid @RequestBody ItemRequestDto requestDto,
+            @RequestHeader("X-Sharer-User-Id") long userId) {
+        return itemRequestService.createRequest(requestDto, userId);
+    }
+
+    @PostMapping("/{requestId}/close")
+    public ItemRequestDto closeRequest(
+            @PathVariable long requestId,
+            @RequestHeader("X-Sharer-User-Id") long userId) {
+        return itemRequestService.closeRequest(requestId, userId);
+    }
+
+    @GetMapping
+    public List<ItemRequestDto> getOwnRequests(@RequestHeader("X-Sharer-User-Id") long userId) {
+        return itemRequestService.getOwnRequests(userId);
+    }
+
+    @GetMapping("/all")
+    public ResponseEntity<List<ItemRequestDto>> getOtherRequests(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        var page = itemRequestService.getOtherRequests(userId, KeysetCursor.decode(after), size);
+        var response = ResponseEntity.ok();
+
+        page.next().ifPresent(cursor -> response.header(NEXT_CURSOR_HEADER, cursor.encode()));
+
+        return response.body(page.requests());
+    }
+
+    @GetMapping("/{requestId}")
+    public ItemRequestDto getRequest(
+            @PathVariable long requestId,
+            @RequestHeader("X-Sharer-User-Id") long userId) {
+        return itemRequestService.getRequest(requestId, userId);
+    }
 }
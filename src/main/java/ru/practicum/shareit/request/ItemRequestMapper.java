@@ -0,0 +1,42 @@
+package ru.practicum.shareit.request;
+
+import ru.practicum.shareit.item.storage.ItemEntity;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.storage.ItemRequestEntity;
+import ru.practicum.shareit.user.storage.UserEntity;
+
+import java.util.List;
+
+public class ItemRequestMapper {
+    public ItemRequestDto toDto(ItemRequestEntity entity, List<ItemAnswerDto> items) {
+        return ItemRequestDto
+                .builder()
+                .id(entity.getId())
+                .description(entity.getDescription())
+                .created(entity.getCreated())
+                .closed(entity.isClosed())
+                .items(items)
+                .build();
+    }
+
+    public ItemAnswerDto toAnswerDto(ItemEntity itemEntity) {
+        return ItemAnswerDto
+                .builder()
+                .id(itemEntity.getId())
+                .name(itemEntity.getName())
+                .description(itemEntity.getDescription())
+                .available(itemEntity.isAvailable())
+                .ownerId(itemEntity.getOwner().getId())
+                .build();
+    }
+
+    public ItemRequestEntity toEntity(ItemRequestDto dto, UserEntity requestor) {
+        var entity = new ItemRequestEntity();
+        entity.setId(dto.id());
+        entity.setRequestor(requestor);
+        entity.setDescription(dto.description());
+
+        return entity;
+    }
+}
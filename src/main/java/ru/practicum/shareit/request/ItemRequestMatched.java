@@ -0,0 +1,13 @@
+package ru.practicum.shareit.request;
+
+/**
+ * Событие outbox о новой или измененной вещи, подходящей под открытый запрос: уведомление автору запроса.
+ */
+public record ItemRequestMatched(
+        long requestId,
+        long requestorId,
+        long itemId,
+        long ownerId
+) {
+    public static final String TYPE = "ITEM_REQUEST_MATCHED";
+}
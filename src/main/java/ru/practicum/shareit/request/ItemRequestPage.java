@@ -0,0 +1,12 @@
+package ru.practicum.shareit.request;
+
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.tool.KeysetCursor;
+
+import java.util.List;
+import java.util.Optional;
+
+public record ItemRequestPage(
+        List<ItemRequestDto> requests,
+        Optional<KeysetCursor> next
+) { }
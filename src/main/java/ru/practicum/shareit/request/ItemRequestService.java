@@ -0,0 +1,128 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.exceptions.NotValidException;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.matching.ItemRequestMatcher;
+import ru.practicum.shareit.request.storage.ItemRequestEntity;
+import ru.practicum.shareit.tool.KeysetCursor;
+import ru.practicum.shareit.user.UserStorage;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ItemRequestService {
+    private final ItemRequestStorage itemRequestStorage;
+    private final ItemStorage itemStorage;
+    private final UserStorage userStorage;
+    private final ItemRequestMatcher itemRequestMatcher;
+    private final ItemRequestMapper itemRequestMapper = new ItemRequestMapper();
+
+    @Transactional
+    public ItemRequestDto createRequest(ItemRequestDto requestDto, long userId) {
+        var userEntity = userStorage.getUser(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+
+        var requestEntity = itemRequestMapper.toEntity(requestDto.toBuilder().id(null).build(), userEntity);
+
+        // точность как у timestamp в БД, чтобы курсор из ответа совпадал с сохраненным значением
+        requestEntity.setCreated(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+
+        itemRequestStorage.updateRequest(requestEntity);
+        itemRequestMatcher.onRequestCreated(requestEntity);
+
+        return itemRequestMapper.toDto(requestEntity, List.of());
+    }
+
+    /**
+     * Закрытый запрос остается в ленте, но новые вещи с ним больше не сопоставляются.
+     */
+    @Transactional
+    public ItemRequestDto closeRequest(long requestId, long userId) {
+        var requestEntity = itemRequestStorage.getRequest(requestId)
+                .orElseThrow(() -> new NotFoundException("Запрос не найден"));
+
+        if (requestEntity.getRequestor().getId() != userId) {
+            throw new NotFoundException("Запрос не доступен");
+        }
+
+        requestEntity.setClosed(true);
+
+        itemRequestStorage.updateRequest(requestEntity);
+        itemRequestMatcher.onRequestClosed(requestId);
+
+        return withItems(List.of(requestEntity)).get(0);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ItemRequestDto> getOwnRequests(long userId) {
+        checkUser(userId);
+
+        return withItems(itemRequestStorage.findRequestsByRequestorId(userId));
+    }
+
+    /**
+     * Лента запросов других пользователей. Ответы на все запросы страницы читаются одним запросом.
+     */
+    @Transactional(readOnly = true)
+    public ItemRequestPage getOtherRequests(long userId, KeysetCursor after, int size) {
+        checkUser(userId);
+
+        if (size <= 0) {
+            throw new NotValidException("Размер страницы должен быть больше нуля");
+        }
+
+        var requestEntities = itemRequestStorage.findRequestsOfOthers(userId, after, size);
+
+        var next = requestEntities.size() < size
+                ? Optional.<KeysetCursor>empty()
+                : Optional.of(requestEntities.get(requestEntities.size() - 1))
+                        .map(r -> new KeysetCursor(r.getCreated(), r.getId()));
+
+        return new ItemRequestPage(withItems(requestEntities), next);
+    }
+
+    @Transactional(readOnly = true)
+    public ItemRequestDto getRequest(long requestId, long userId) {
+        checkUser(userId);
+
+        var requestEntity = itemRequestStorage.getRequest(requestId)
+                .orElseThrow(() -> new NotFoundException("Запрос не найден"));
+
+        return withItems(List.of(requestEntity)).get(0);
+    }
+
+    private List<ItemRequestDto> withItems(List<ItemRequestEntity> requestEntities) {
+        var requestIds = requestEntities
+                .stream()
+                .map(ItemRequestEntity::getId)
+                .toList();
+
+        var itemsByRequestId = itemStorage.getItemsForRequests(requestIds)
+                .stream()
+                .collect(Collectors.groupingBy(
+                        i -> i.getRequest().getId(),
+                        Collectors.mapping(itemRequestMapper::toAnswerDto, Collectors.toList())));
+
+        return requestEntities
+                .stream()
+                .map(r -> itemRequestMapper.toDto(r, itemsByRequestId.getOrDefault(r.getId(), List.<ItemAnswerDto>of())))
+                .toList();
+    }
+
+    private void checkUser(long userId) {
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
+    }
+}
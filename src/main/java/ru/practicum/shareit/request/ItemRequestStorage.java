@@ -0,0 +1,26 @@
+package ru.practicum.shareit.request;
+
+import ru.practicum.shareit.request.storage.ItemRequestEntity;
+import ru.practicum.shareit.tool.KeysetCursor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemRequestStorage {
+    Optional<ItemRequestEntity> getRequest(long requestId);
+
+    List<ItemRequestEntity> getRequests(Collection<Long> requestIds);
+
+    void updateRequest(ItemRequestEntity requestEntity);
+
+    /**
+     * Запросы пользователя от новых к старым.
+     */
+    List<ItemRequestEntity> findRequestsByRequestorId(long userId);
+
+    /**
+     * Страница запросов других пользователей от новых к старым, начинается после курсора.
+     */
+    List<ItemRequestEntity> findRequestsOfOthers(long userId, KeysetCursor after, int size);
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.Builder;
+
+/**
+ * Вещь, добавленная в ответ на запрос.
+ */
+@Builder
+public record ItemAnswerDto(
+    Long id,
+    String name,
+    String description,
+    Boolean available,
+    Long ownerId
+) { }
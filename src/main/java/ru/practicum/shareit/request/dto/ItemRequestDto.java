@@ -1,12 +1,16 @@
 package ru.practicum.shareit.request.dto;
 
+import jakarta.validation.constraints.NotBlank;
 import lombok.Builder;
-import lombok.Value;
 
-@Value
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Builder(toBuilder = true)
-public class ItemRequestDto {
-    Long id;
-    Long userId;
-    String text;
-}
+public record ItemRequestDto(
+    Long id,
+    @NotBlank String description,
+    LocalDateTime created,
+    Boolean closed,
+    List<ItemAnswerDto> items
+) { }
@@ -0,0 +1,204 @@
+package ru.practicum.shareit.request.matching;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.storage.ItemEntity;
+import ru.practicum.shareit.outbox.OutboxPublisher;
+import ru.practicum.shareit.request.ItemRequestMatched;
+import ru.practicum.shareit.request.storage.ItemRequestEntity;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.tool.AfterCommit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сопоставляет сохраненные вещи с открытыми запросами. Индекс ключевых слов запросов строится
+ * при старте и обновляется после коммита создания и закрытия запроса. Доступные вещи после коммита
+ * ставятся в ограниченную очередь; виртуальный поток разбирает ее пачками по batch-size
+ * и пишет совпадения в outbox одной транзакцией на пачку. При переполнении очереди вещь
+ * пропускается, при ошибке записи пропадает пачка: совпадения не помечаются отправленными
+ * и найдутся снова при следующем изменении вещи.
+ * Метрики: shareit.matching.queue - глубина очереди, shareit.matching.latency - время
+ * от коммита вещи до записи совпадений, shareit.matching.matches, shareit.matching.dropped.
+ */
+@Component
+@Slf4j
+public class ItemRequestMatcher implements SmartLifecycle {
+    private final ItemRequestRepository itemRequestRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final double minScore;
+
+    private final KeywordIndex index = new KeywordIndex();
+    private final BlockingQueue<MatchCandidate> queue;
+    private final Timer latency;
+    private final Counter matches;
+    private final Counter dropped;
+    private final Counter failures;
+
+    private volatile Thread thread;
+
+    public ItemRequestMatcher(
+            ItemRequestRepository itemRequestRepository,
+            OutboxPublisher outboxPublisher,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.matching.queue-capacity:10000}") int queueCapacity,
+            @Value("${shareit.matching.batch-size:100}") int batchSize,
+            @Value("${shareit.matching.min-score:0.5}") double minScore) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.minScore = minScore;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.latency = Timer.builder("shareit.matching.latency").register(meterRegistry);
+        this.matches = meterRegistry.counter("shareit.matching.matches");
+        this.dropped = meterRegistry.counter("shareit.matching.dropped");
+        this.failures = meterRegistry.counter("shareit.matching.failures");
+
+        Gauge.builder("shareit.matching.queue", queue, Collection::size)
+                .register(meterRegistry);
+        Gauge.builder("shareit.matching.requests", index, KeywordIndex::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        var transaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        transaction.setReadOnly(true);
+
+        transaction.executeWithoutResult(status -> {
+            try (var requests = itemRequestRepository.streamOpen()) {
+                requests.forEach(r -> index.add(r.getId(), r.getRequestor().getId(), r.getDescription()));
+            }
+        });
+
+        log.info("Индекс запросов для сопоставления построен: {} открытых запросов", index.size());
+    }
+
+    public void onRequestCreated(ItemRequestEntity requestEntity) {
+        var requestId = requestEntity.getId();
+        var requestorId = requestEntity.getRequestor().getId();
+        var description = requestEntity.getDescription();
+
+        AfterCommit.run(() -> index.add(requestId, requestorId, description));
+    }
+
+    public void onRequestClosed(long requestId) {
+        AfterCommit.run(() -> index.remove(requestId));
+    }
+
+    public void onItemSaved(ItemEntity itemEntity) {
+        onItemsSaved(List.of(itemEntity));
+    }
+
+    public void onItemsSaved(Collection<ItemEntity> itemEntities) {
+        // снимок берется сразу: после коммита сущности могут измениться в другой транзакции
+        var candidates = itemEntities
+                .stream()
+                .filter(ItemEntity::isAvailable)
+                .map(MatchCandidate::of)
+                .toList();
+
+        if (candidates.isEmpty())
+            return;
+
+        AfterCommit.run(() -> candidates.forEach(c -> {
+            if (!queue.offer(c.enqueuedNow())) {
+                dropped.increment();
+                log.debug("Очередь сопоставления заполнена, вещь {} пропущена", c.itemId());
+            }
+        }));
+    }
+
+    @Override
+    public void start() {
+        // поле заполняется до старта: цикл работает, пока thread не обнулен в stop
+        thread = Thread.ofVirtual()
+                .name("item-request-matcher")
+                .unstarted(this::run);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        var current = thread;
+        thread = null;
+
+        if (current == null)
+            return;
+
+        current.interrupt();
+
+        try {
+            current.join(Duration.ofSeconds(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    private void run() {
+        var batch = new ArrayList<MatchCandidate>(batchSize);
+
+        while (thread != null) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+
+                process(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                if (thread == null)
+                    return;
+
+                failures.increment();
+                log.warn("Не удалось записать совпадения для {} вещей", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<MatchCandidate> batch) {
+        // одна вещь может попасть в пачку несколько раз, совпадение отправляется однажды
+        var found = new LinkedHashSet<ItemRequestMatched>();
+
+        for (var candidate : batch)
+            found.addAll(index.match(candidate, minScore));
+
+        if (!found.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> found.forEach(m ->
+                    outboxPublisher.publish(ItemRequestMatched.TYPE, m.requestId(), m)));
+
+            found.forEach(index::markMatched);
+            matches.increment(found.size());
+        }
+
+        var now = System.nanoTime();
+        batch.forEach(c -> latency.record(now - c.enqueued(), TimeUnit.NANOSECONDS));
+    }
+}
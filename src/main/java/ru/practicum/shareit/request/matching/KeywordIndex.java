@@ -0,0 +1,87 @@
+package ru.practicum.shareit.request.matching;
+
+import ru.practicum.shareit.request.ItemRequestMatched;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Инвертированный индекс ключевых слов открытых запросов. Вещь подходит под запрос,
+ * если в ее тексте есть не меньше minScore доли ключевых слов запроса. Для каждого запроса
+ * помнятся уже отправленные вещи, чтобы изменение вещи не дало повторного совпадения.
+ * Записи редкие, а читает один поток сопоставления, поэтому достаточно synchronized.
+ */
+class KeywordIndex {
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, IndexedRequest> requests = new HashMap<>();
+
+    synchronized void add(long requestId, long requestorId, String description) {
+        var keywords = Keywords.of(description);
+
+        if (keywords.isEmpty() || requests.containsKey(requestId))
+            return;
+
+        requests.put(requestId, new IndexedRequest(requestorId, keywords, new HashSet<>()));
+        keywords.forEach(k -> postings.computeIfAbsent(k, key -> new HashSet<>()).add(requestId));
+    }
+
+    synchronized void remove(long requestId) {
+        var request = requests.remove(requestId);
+
+        if (request == null)
+            return;
+
+        for (var keyword : request.keywords()) {
+            var ids = postings.get(keyword);
+            ids.remove(requestId);
+
+            if (ids.isEmpty())
+                postings.remove(keyword);
+        }
+    }
+
+    synchronized int size() {
+        return requests.size();
+    }
+
+    /**
+     * Открытые чужие запросы, под которые подходит вещь и которым она еще не отправлялась.
+     */
+    synchronized List<ItemRequestMatched> match(MatchCandidate item, double minScore) {
+        var hits = new HashMap<Long, Integer>();
+
+        for (var keyword : Keywords.of(item.text())) {
+            for (var requestId : postings.getOrDefault(keyword, Set.of()))
+                hits.merge(requestId, 1, Integer::sum);
+        }
+
+        var found = new ArrayList<ItemRequestMatched>();
+
+        hits.forEach((requestId, count) -> {
+            var request = requests.get(requestId);
+
+            if (request.requestorId() == item.ownerId()
+                    || request.matchedItemIds().contains(item.itemId())
+                    || count < minScore * request.keywords().size())
+                return;
+
+            found.add(new ItemRequestMatched(requestId, request.requestorId(), item.itemId(), item.ownerId()));
+        });
+
+        return found;
+    }
+
+    synchronized void markMatched(ItemRequestMatched match) {
+        var request = requests.get(match.requestId());
+
+        if (request != null)
+            request.matchedItemIds().add(match.itemId());
+    }
+
+    private record IndexedRequest(long requestorId, Set<String> keywords, Set<Long> matchedItemIds) {
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.request.matching;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ключевые слова текста: слова из букв и цифр от MIN_LENGTH символов в нижнем регистре,
+ * обрезанные до STEM_LENGTH символов, чтобы формы одного слова ("дрель", "дрели") совпадали.
+ */
+final class Keywords {
+    private static final int MIN_LENGTH = 3;
+    private static final int STEM_LENGTH = 4;
+
+    private Keywords() {
+    }
+
+    static Set<String> of(String text) {
+        if (text == null)
+            return Set.of();
+
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(w -> w.length() >= MIN_LENGTH)
+                .map(w -> w.length() > STEM_LENGTH ? w.substring(0, STEM_LENGTH) : w)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
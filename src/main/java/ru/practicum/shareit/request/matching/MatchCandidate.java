@@ -0,0 +1,21 @@
+package ru.practicum.shareit.request.matching;
+
+import ru.practicum.shareit.item.storage.ItemEntity;
+
+/**
+ * Снимок сохраненной вещи в очереди сопоставления. enqueued - System.nanoTime() постановки в очередь.
+ */
+record MatchCandidate(long itemId, long ownerId, String text, long enqueued) {
+
+    static MatchCandidate of(ItemEntity itemEntity) {
+        return new MatchCandidate(
+                itemEntity.getId(),
+                itemEntity.getOwner().getId(),
+                itemEntity.getName() + " " + itemEntity.getDescription(),
+                0);
+    }
+
+    MatchCandidate enqueuedNow() {
+        return new MatchCandidate(itemId, ownerId, text, System.nanoTime());
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.request.storage;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import ru.practicum.shareit.user.storage.UserEntity;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "item_requests")
+@Data
+public class ItemRequestEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_requests_seq")
+    @SequenceGenerator(name = "item_requests_seq", sequenceName = "item_requests_seq", allocationSize = 50)
+    @Column(name = "request_id")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "requestor_id", nullable = false)
+    private UserEntity requestor;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(nullable = false)
+    private LocalDateTime created;
+
+    @Column(nullable = false)
+    private boolean closed;
+
+    public ItemRequestEntity() {
+
+    }
+
+    @Override
+    public String toString() {
+        return String.format("id=%d,requestor=%d,created=%s", id, requestor.getId(), created);
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.request.storage;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ItemRequestRepository extends JpaRepository<ItemRequestEntity, Long> {
+    @Query("select r " +
+            "from ItemRequestEntity r " +
+            "where r.requestor.id = :requestorId " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequestEntity> findByRequestorId(@Param("requestorId") long requestorId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select r from ItemRequestEntity r where r.closed = false")
+    Stream<ItemRequestEntity> streamOpen();
+
+    @Query("select r " +
+            "from ItemRequestEntity r " +
+            "where r.requestor.id <> :userId " +
+            "   and (r.created < :created or (r.created = :created and r.id < :id)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequestEntity> findPageOfOthers(
+            @Param("userId") long userId,
+            @Param("created") LocalDateTime created,
+            @Param("id") long id,
+            Limit limit);
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.request.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.request.ItemRequestStorage;
+import ru.practicum.shareit.tool.KeysetCursor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+@Qualifier("ItemRequestStorageInDb")
+public class ItemRequestStorageInDb implements ItemRequestStorage {
+    private final ItemRequestRepository itemRequestRepository;
+
+    @Override
+    public Optional<ItemRequestEntity> getRequest(long requestId) {
+        return itemRequestRepository.findById(requestId);
+    }
+
+    @Override
+    public List<ItemRequestEntity> getRequests(Collection<Long> requestIds) {
+        if (requestIds.isEmpty())
+            return List.of();
+
+        return itemRequestRepository.findAllById(requestIds);
+    }
+
+    @Override
+    public void updateRequest(ItemRequestEntity requestEntity) {
+        itemRequestRepository.save(requestEntity);
+    }
+
+    @Override
+    public List<ItemRequestEntity> findRequestsByRequestorId(long userId) {
+        return itemRequestRepository.findByRequestorId(userId);
+    }
+
+    @Override
+    public List<ItemRequestEntity> findRequestsOfOthers(long userId, KeysetCursor after, int size) {
+        return itemRequestRepository.findPageOfOthers(userId, after.time(), after.id(), Limit.of(size));
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.tool;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Обход потока сущностей с периодической очисткой контекста персистентности,
+ * чтобы длинная выгрузка не копила прочитанные сущности в сессии.
+ */
+public final class EntityStreams {
+    private static final int CLEAR_INTERVAL = 1000;
+
+    private EntityStreams() {
+
+    }
+
+    public static <T> void forEach(EntityManager entityManager, Stream<T> entities, Consumer<? super T> action) {
+        try (entities) {
+            var count = 0;
+            var iterator = entities.iterator();
+
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+
+                if (++count % CLEAR_INTERVAL == 0)
+                    entityManager.clear();
+            }
+        }
+    }
+}
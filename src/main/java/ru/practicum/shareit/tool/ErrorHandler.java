@@ -1,14 +1,21 @@
 package ru.practicum.shareit.tool;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.MessageSourceResolvable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.NotValidException;
 
+import java.util.stream.Collectors;
+
 @RestControllerAdvice
 @Slf4j
 public class ErrorHandler {
@@ -42,6 +49,50 @@ public class ErrorHandler {
                 e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handlerNotValid(final MethodArgumentTypeMismatchException e) {
+        log.debug(e.getMessage(), e);
+
+        return new ErrorResponse(
+                "NotValidException",
+                "Unknown " + e.getName() + ": " + e.getValue());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handlerNotValid(final HandlerMethodValidationException e) {
+        log.debug(e.getMessage(), e);
+
+        return new ErrorResponse(
+                "NotValidException",
+                e.getAllValidationResults()
+                        .stream()
+                        .flatMap(r -> r.getResolvableErrors().stream())
+                        .map(MessageSourceResolvable::getDefaultMessage)
+                        .collect(Collectors.joining("; ")));
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handlerNotValid(final HttpMessageNotReadableException e) {
+        log.debug(e.getMessage(), e);
+
+        return new ErrorResponse(
+                "NotValidException",
+                "Произошла ошибка чтения данных");
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handlerConflict(final ObjectOptimisticLockingFailureException e) {
+        log.debug(e.getMessage(), e);
+
+        return new ErrorResponse(
+                "ConflictException",
+                "Запись изменена другим запросом, повторите изменение");
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handlerOther(final Exception e) {
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.tool;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Пропускает к пулу соединений не больше permits потоков одновременно.
+ * Остальные ждут на семафоре в порядке очереди; виртуальный поток при этом
+ * отпускает носителя, так что тысячи ожидающих запросов почти ничего не стоят.
+ * Разрешение возвращается при закрытии соединения.
+ */
+public class GatedDataSource extends DelegatingDataSource {
+    private final Semaphore permits;
+    private final long timeoutNanos;
+    private volatile Timer waitTimer;
+
+    public GatedDataSource(DataSource dataSource, int permits, Duration timeout) {
+        super(dataSource);
+        this.permits = new Semaphore(permits, true);
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+
+        try {
+            return gate(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+
+        try {
+            return gate(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Таймер, в который пишется время ожидания разрешения.
+     */
+    public void bindWaitTimer(Timer waitTimer) {
+        this.waitTimer = waitTimer;
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int queueLength() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        var started = System.nanoTime();
+
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS))
+                throw new SQLTransientConnectionException("Не дождались свободного соединения с БД");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Ожидание соединения с БД прервано", e);
+        } finally {
+            var timer = waitTimer;
+
+            if (timer != null)
+                timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Connection gate(Connection connection) {
+        var released = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if (method.getName().equals("close") && released.compareAndSet(false, true))
+                            permits.release();
+                    }
+                });
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.tool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zalando.logbook.HttpRequest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Выборочное логирование HTTP через Logbook: пишется только доля запросов shareit.logging.sample-rate.
+ * Остальные запросы Logbook пропускает целиком и не буферизует их тела.
+ * Запросы к actuator не логируются.
+ */
+@Configuration
+public class HttpLoggingConfig {
+    @Bean
+    public Predicate<HttpRequest> requestCondition(@Value("${shareit.logging.sample-rate:1.0}") double sampleRate) {
+        Predicate<HttpRequest> notActuator = request -> !request.getPath().startsWith("/actuator");
+
+        if (sampleRate >= 1.0)
+            return notActuator;
+
+        return notActuator.and(request -> ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+}
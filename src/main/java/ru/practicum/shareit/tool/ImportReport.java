@@ -0,0 +1,33 @@
+package ru.practicum.shareit.tool;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Итог построчного импорта. Хранит не больше MAX_ERRORS ошибок,
+ * остальные отклоненные строки только считаются.
+ */
+@Getter
+public class ImportReport {
+    private static final int MAX_ERRORS = 100;
+
+    private long imported;
+    private long rejected;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void imported(int count) {
+        imported += count;
+    }
+
+    public void reject(long line, String message) {
+        rejected++;
+
+        if (errors.size() < MAX_ERRORS)
+            errors.add(new RowError(line, message));
+    }
+
+    public record RowError(long line, String message) {
+    }
+}
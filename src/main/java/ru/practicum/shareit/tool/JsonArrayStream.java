@@ -0,0 +1,36 @@
+package ru.practicum.shareit.tool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.stream.Stream;
+
+/**
+ * Пишет элементы потока в ответ JSON-массивом по одному,
+ * не собирая весь список в памяти. Ответ сбрасывается по заполнении буферов и один раз
+ * в конце, а не после каждого элемента, как при FLUSH_AFTER_WRITE_VALUE.
+ */
+public final class JsonArrayStream {
+    private JsonArrayStream() {
+
+    }
+
+    public static StreamingResponseBody of(ObjectMapper objectMapper, Stream<?> elements) {
+        return outputStream -> {
+            var writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+            try (elements; var generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+
+                var iterator = elements.iterator();
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, iterator.next());
+                }
+
+                generator.writeEndArray();
+                generator.flush();
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.tool;
+
+import ru.practicum.shareit.exceptions.NotValidException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Позиция в списке, отсортированном по (time desc, id desc): бронирования по start,
+ * комментарии и запросы по created. Клиенту отдается в виде непрозрачной строки.
+ */
+public record KeysetCursor(LocalDateTime time, long id) {
+    private static final KeysetCursor FIRST = new KeysetCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            Long.MAX_VALUE);
+
+    public static KeysetCursor first() {
+        return FIRST;
+    }
+
+    public static KeysetCursor decode(String value) {
+        if (value == null || value.isBlank())
+            return FIRST;
+
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            var separator = decoded.lastIndexOf('|');
+
+            return new KeysetCursor(
+                    LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new NotValidException("Некорректный курсор");
+        }
+    }
+
+    public String encode() {
+        var value = time + "|" + id;
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.tool;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.booking.BookingStorage;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.request.ItemRequestStorage;
+import ru.practicum.shareit.user.UserStorage;
+
+import java.util.List;
+
+/**
+ * Метрики приложения: тег operation (контроллер.метод) у http.server.requests,
+ * таймеры вызовов хранилищ и число SQL-запросов на HTTP-запрос.
+ * Перцентили задаются в management.metrics.distribution.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+    private static final List<Class<?>> STORAGE_TYPES = List.of(
+            UserStorage.class, ItemStorage.class, BookingStorage.class, ItemRequestStorage.class);
+
+    private final StatementCounter statementCounter;
+
+    public MetricsConfig(MeterRegistry registry) {
+        this.statementCounter = new StatementCounter(registry);
+    }
+
+    @Bean
+    public static BeanPostProcessor timedStoragePostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                for (var storageType : STORAGE_TYPES) {
+                    if (storageType.isInstance(bean))
+                        return TimedStorage.wrap(bean, storageType, registry.getObject());
+                }
+
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public ServerRequestObservationConvention serverRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                var handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+
+                return super.getLowCardinalityKeyValues(context)
+                        .and("operation", StatementCounter.operation(handler));
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(statementCounter);
+    }
+}
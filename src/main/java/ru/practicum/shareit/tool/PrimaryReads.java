@@ -0,0 +1,40 @@
+package ru.practicum.shareit.tool;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.function.Supplier;
+
+/**
+ * Загрузка кэшей и представлений из основной БД. Транзакция readOnly могла уже получить
+ * соединение реплики, поэтому внутри нее при включенных репликах загрузка идет в отдельной
+ * транзакции; пишущая транзакция и так работает с основной БД, к ней загрузка присоединяется.
+ */
+@Component
+public class PrimaryReads {
+    private final TransactionTemplate joined;
+    private final TransactionTemplate separate;
+    private final boolean replicas;
+
+    public PrimaryReads(PlatformTransactionManager transactionManager, DataSource dataSource) {
+        this.joined = new TransactionTemplate(transactionManager);
+        this.joined.setReadOnly(true);
+        this.separate = new TransactionTemplate(transactionManager);
+        this.separate.setReadOnly(true);
+        this.separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.replicas = dataSource instanceof ReplicaRoutingDataSource;
+    }
+
+    public <T> T read(Supplier<T> loader) {
+        if (!replicas)
+            return joined.execute(status -> loader.get());
+
+        var transaction = TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? separate : joined;
+
+        return ReplicaRoutingDataSource.readFromPrimary(() -> transaction.execute(status -> loader.get()));
+    }
+}
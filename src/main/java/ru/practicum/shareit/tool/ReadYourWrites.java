@@ -0,0 +1,56 @@
+package ru.practicum.shareit.tool;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Пользователи, недавно изменившие данные: в течение window их чтение идет в основную БД,
+ * чтобы отставание реплик не скрывало от них собственные изменения. Пользователь берется
+ * из заголовка X-Sharer-User-Id текущего запроса, фоновые потоки не отслеживаются.
+ */
+public class ReadYourWrites {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final Cache<Long, Boolean> writers;
+
+    public ReadYourWrites(Duration window, long maximumSize) {
+        this.writers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    /**
+     * Вызывается после коммита пишущей транзакции.
+     */
+    public void onWrite() {
+        currentUser().ifPresent(userId -> writers.put(userId, Boolean.TRUE));
+    }
+
+    public boolean isRecentWriter() {
+        return currentUser()
+                .map(userId -> writers.getIfPresent(userId) != null)
+                .orElse(false);
+    }
+
+    private static Optional<Long> currentUser() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes))
+            return Optional.empty();
+
+        var header = attributes.getRequest().getHeader(USER_HEADER);
+
+        if (header == null)
+            return Optional.empty();
+
+        try {
+            return Optional.of(Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.tool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Чтение из реплик: транзакции readOnly обслуживаются репликами из shareit.datasource.replicas
+ * (url, username, password), запись - основной БД spring.datasource. Без реплик не включается.
+ */
+@Configuration
+@ConditionalOnProperty("shareit.datasource.replicas[0].url")
+public class ReplicaRoutingConfig {
+    @Bean
+    public static BeanPostProcessor replicaRoutingPostProcessor(
+            Environment environment,
+            @Value("${shareit.datasource.read-your-writes:PT5S}") Duration readYourWrites,
+            @Value("${shareit.datasource.replica-retry:PT5S}") Duration replicaRetry,
+            @Value("${shareit.datasource.replica-connection-timeout:PT1S}") Duration connectionTimeout,
+            @Value("${shareit.jdbc.gate.permits:0}") int gatePermits,
+            @Value("${shareit.cache.maximum-size:10000}") long maximumSize) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ReplicaRoutingDataSource)
+                    return bean;
+
+                var replicas = new LinkedHashMap<String, DataSource>();
+                var properties = Binder.get(environment)
+                        .bind("shareit.datasource.replicas", Bindable.listOf(DataSourceProperties.class))
+                        .orElse(List.of());
+
+                for (int i = 0; i < properties.size(); i++) {
+                    var replica = properties.get(i).initializeDataSourceBuilder().type(HikariDataSource.class).build();
+
+                    replica.setPoolName("replica" + i);
+                    replica.setReadOnly(true);
+                    // недоступная реплика не должна надолго задерживать чтение, оно уйдет на следующую
+                    replica.setConnectionTimeout(connectionTimeout.toMillis());
+                    // в режиме виртуальных потоков реплики ограничены семафором, как и основная БД
+                    replicas.put(replica.getPoolName(), Threading.VIRTUAL.isActive(environment)
+                            ? VirtualThreadsConfig.gate(replica, gatePermits, connectionTimeout)
+                            : replica);
+                }
+
+                return new ReplicaRoutingDataSource(
+                        dataSource,
+                        replicas,
+                        new ReadYourWrites(readYourWrites, maximumSize),
+                        replicaRetry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder replicaRoutingMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ReplicaRoutingDataSource routing)
+                routing.bindMetrics(registry);
+        };
+    }
+}
@@ -0,0 +1,251 @@
+package ru.practicum.shareit.tool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Соединение выбирается при первом обращении к нему: транзакции readOnly получают соединение
+ * реплики, остальные - основной БД. Реплики обходятся по кругу; реплика, до которой не удалось
+ * достучаться, пропускается retryAfter и затем пробуется снова, а занятая (пул исчерпан) только
+ * уступает очередь следующей. Если доступных реплик нет, для пользователей, недавно
+ * изменивших данные (ReadYourWrites), а также внутри readFromPrimary чтение идет в основную БД.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWrites readYourWrites;
+    private final long retryAfterNanos;
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = ThreadLocal.withInitial(() -> false);
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder recentWriterReads = new LongAdder();
+
+    public ReplicaRoutingDataSource(
+            DataSource primary,
+            Map<String, DataSource> replicas,
+            ReadYourWrites readYourWrites,
+            Duration retryAfter) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet()
+                .stream()
+                .map(e -> new Replica(e.getKey(), e.getValue()))
+                .toList();
+        this.readYourWrites = readYourWrites;
+        this.retryAfterNanos = retryAfter.toNanos();
+
+        setTargetDataSource(new WriteTrackingDataSource(primary));
+        setReadOnlyDataSource(new ReplicaPool());
+        afterPropertiesSet();
+    }
+
+    /**
+     * Соединения, взятые внутри action, идут в основную БД. Нужно загрузкам кэшей: загруженное
+     * отдается всем пользователям, и отставание реплики сохранилось бы в кэше до конца срока записи.
+     */
+    public static <T> T readFromPrimary(Supplier<T> action) {
+        var previous = PRIMARY_ONLY.get();
+
+        PRIMARY_ONLY.set(true);
+
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_ONLY.set(previous);
+        }
+    }
+
+    public long availableReplicas() {
+        return replicas
+                .stream()
+                .filter(Replica::isAvailable)
+                .count();
+    }
+
+    public void bindMetrics(MeterRegistry registry) {
+        for (var replica : replicas) {
+            FunctionCounter.builder("shareit.datasource.reads", replica.reads, LongAdder::sum)
+                    .description("Соединения для чтения")
+                    .tag("target", replica.name())
+                    .register(registry);
+            FunctionCounter.builder("shareit.datasource.replica.busy", replica.busy, LongAdder::sum)
+                    .description("Пул реплики занят, чтение ушло к следующей")
+                    .tag("replica", replica.name())
+                    .register(registry);
+            FunctionCounter.builder("shareit.datasource.replica.failures", replica.failures, LongAdder::sum)
+                    .description("Реплика не дала соединение")
+                    .tag("replica", replica.name())
+                    .register(registry);
+        }
+
+        FunctionCounter.builder("shareit.datasource.reads", primaryReads, LongAdder::sum)
+                .description("Соединения для чтения")
+                .tag("target", "primary")
+                .register(registry);
+        FunctionCounter.builder("shareit.datasource.read-your-writes", recentWriterReads, LongAdder::sum)
+                .description("Чтение из основной БД после собственного изменения")
+                .register(registry);
+        Gauge.builder("shareit.datasource.replicas.available", this, ReplicaRoutingDataSource::availableReplicas)
+                .description("Реплики, которым выдаются соединения")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(r -> closePool(r.name(), r.dataSource));
+        closePool("primary", primary);
+    }
+
+    private static void closePool(String name, DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class))
+                dataSource.unwrap(HikariDataSource.class).close();
+        } catch (SQLException e) {
+            log.warn("Не удалось закрыть пул {}", name, e);
+        }
+    }
+
+    /**
+     * Соединения основной БД; коммит пишущей транзакции отмечает пользователя для ReadYourWrites.
+     */
+    private class WriteTrackingDataSource extends DelegatingDataSource {
+        WriteTrackingDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return track(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return track(super.getConnection(username, password));
+        }
+
+        private Connection track(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result;
+
+                        try {
+                            result = method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+
+                        if (method.getName().equals("commit") && !connection.isReadOnly())
+                            readYourWrites.onWrite();
+
+                        return result;
+                    });
+        }
+    }
+
+    private class ReplicaPool extends AbstractDataSource {
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (PRIMARY_ONLY.get()) {
+                primaryReads.increment();
+                return primary.getConnection();
+            }
+
+            if (readYourWrites.isRecentWriter()) {
+                recentWriterReads.increment();
+                return primary.getConnection();
+            }
+
+            var start = next.getAndIncrement();
+
+            for (int i = 0; i < replicas.size(); i++) {
+                var replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+
+                if (!replica.isAvailable())
+                    continue;
+
+                try {
+                    var connection = replica.dataSource.getConnection();
+
+                    replica.reads.increment();
+
+                    return connection;
+                } catch (SQLTransientConnectionException e) {
+                    // без причины - пул или семафор просто заняты, реплика исправна
+                    if (e.getCause() == null) {
+                        replica.busy.increment();
+                        continue;
+                    }
+
+                    markDown(replica, e);
+                } catch (SQLException | RuntimeException e) {
+                    markDown(replica, e);
+                }
+            }
+
+            primaryReads.increment();
+
+            return primary.getConnection();
+        }
+
+        private void markDown(Replica replica, Exception e) {
+            replica.markDown();
+            log.warn("Реплика {} недоступна, повтор через {} мс", replica.name(), retryAfterNanos / 1_000_000, e);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException("Реплики используют собственные учетные данные");
+        }
+    }
+
+    private class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final LongAdder reads = new LongAdder();
+        private final LongAdder busy = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private volatile long retryAt = System.nanoTime();
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        String name() {
+            return name;
+        }
+
+        boolean isAvailable() {
+            return System.nanoTime() - retryAt >= 0;
+        }
+
+        void markDown() {
+            failures.increment();
+            retryAt = System.nanoTime() + retryAfterNanos;
+        }
+    }
+}
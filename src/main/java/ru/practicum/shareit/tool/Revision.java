@@ -0,0 +1,25 @@
+package ru.practicum.shareit.tool;
+
+import java.time.Instant;
+
+/**
+ * Версия представления ресурса для условных GET: сильный ETag и время последнего изменения.
+ * Считается без загрузки самого представления.
+ */
+public record Revision(String etag, Instant lastModified) {
+    public static Revision of(long version, Instant updated) {
+        return new Revision("\"" + version + "\"", updated);
+    }
+
+    /**
+     * Ревизия представления, которое зависит не только от строки в БД.
+     * Время изменения строки для него ничего не гарантирует, поэтому не отдается.
+     */
+    public Revision withVariant(String variant) {
+        return new Revision(etag.substring(0, etag.length() - 1) + "-" + variant + "\"", null);
+    }
+
+    public long lastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.toEpochMilli();
+    }
+}
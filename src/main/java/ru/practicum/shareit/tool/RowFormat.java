@@ -0,0 +1,41 @@
+package ru.practicum.shareit.tool;
+
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.exceptions.NotValidException;
+
+import java.util.Arrays;
+
+/**
+ * Построчные форматы импорта и выгрузки: одна запись на строку.
+ */
+public enum RowFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CSV(new MediaType("text", "csv"));
+
+    public static final String NDJSON_VALUE = MediaType.APPLICATION_NDJSON_VALUE;
+    public static final String CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+
+    RowFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public static RowFormat of(MediaType contentType) {
+        return Arrays.stream(values())
+                .filter(f -> f.mediaType.isCompatibleWith(contentType))
+                .findFirst()
+                .orElseThrow(() -> new NotValidException("Неподдерживаемый формат: " + contentType));
+    }
+
+    public static RowFormat of(String name) {
+        return Arrays.stream(values())
+                .filter(f -> f.name().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new NotValidException("Неподдерживаемый формат: " + name));
+    }
+}
@@ -0,0 +1,167 @@
+package ru.practicum.shareit.tool;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.Validator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Читает тело запроса построчно и превращает каждую строку в проверенный DTO.
+ * Строки разбираются по мере чтения потока, в памяти держится только текущая.
+ * В CSV первая строка - заголовок с именами полей, вложенные поля пишутся через точку (booker.id).
+ * Значения в кавычках не могут содержать перевод строки.
+ */
+public final class RowReader {
+    private RowReader() {
+
+    }
+
+    public static <T> Stream<Row<T>> read(
+            InputStream inputStream,
+            RowFormat format,
+            ObjectMapper objectMapper,
+            Validator validator,
+            Class<T> type) {
+        var reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        var lineNumber = new AtomicLong();
+        var header = format == RowFormat.CSV ? readHeader(reader, lineNumber) : null;
+
+        return reader
+                .lines()
+                .map(text -> toRow(lineNumber.incrementAndGet(), text, header, objectMapper, validator, type))
+                .filter(Objects::nonNull)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private static List<String> readHeader(BufferedReader reader, AtomicLong lineNumber) {
+        try {
+            var line = reader.readLine();
+            lineNumber.incrementAndGet();
+
+            return line == null ? List.of() : parseCsvLine(line.strip());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> Row<T> toRow(
+            long line,
+            String text,
+            List<String> header,
+            ObjectMapper objectMapper,
+            Validator validator,
+            Class<T> type) {
+        if (text.isBlank())
+            return null;
+
+        T value;
+
+        try {
+            var node = header == null ? objectMapper.readTree(text) : toNode(header, parseCsvLine(text), objectMapper);
+            value = objectMapper.treeToValue(node, type);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return new Row<>(line, null, "Произошла ошибка чтения данных");
+        }
+
+        var violations = validator.validate(value);
+
+        if (!violations.isEmpty()) {
+            return new Row<>(line, null, violations
+                    .stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        return new Row<>(line, value, null);
+    }
+
+    private static JsonNode toNode(List<String> header, List<String> values, ObjectMapper objectMapper) {
+        if (values.size() > header.size()) {
+            throw new IllegalArgumentException("Значений больше, чем колонок");
+        }
+
+        var root = objectMapper.createObjectNode();
+
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i).isEmpty())
+                continue;
+
+            var path = header.get(i).split("\\.");
+            ObjectNode node = root;
+
+            for (int j = 0; j < path.length - 1; j++) {
+                node = node.has(path[j]) ? (ObjectNode) node.get(path[j]) : node.putObject(path[j]);
+            }
+
+            node.put(path[path.length - 1], values.get(i));
+        }
+
+        return root;
+    }
+
+    static List<String> parseCsvLine(String line) {
+        var values = new ArrayList<String>();
+        var value = new StringBuilder();
+        var quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Незакрытая кавычка");
+        }
+
+        values.add(value.toString());
+
+        return values;
+    }
+
+    /**
+     * Прочитанная строка: либо значение, либо описание ошибки.
+     */
+    public record Row<T>(long line, T value, String error) {
+        public boolean isValid() {
+            return error == null;
+        }
+    }
+}
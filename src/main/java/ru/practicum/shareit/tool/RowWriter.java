@@ -0,0 +1,69 @@
+package ru.practicum.shareit.tool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Пишет записи в ответ по одной в формате NDJSON или CSV.
+ * Колонки CSV совпадают с заголовком, который понимает RowReader.
+ */
+public class RowWriter {
+    private final Writer writer;
+    private final RowFormat format;
+    private final ObjectMapper objectMapper;
+    private final List<String> columns;
+
+    public RowWriter(OutputStream outputStream, RowFormat format, ObjectMapper objectMapper, List<String> columns)
+            throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.columns = columns;
+
+        if (format == RowFormat.CSV)
+            writeLine(String.join(",", columns));
+    }
+
+    public void write(Object row) {
+        try {
+            writeLine(format == RowFormat.CSV ? toCsv(row) : objectMapper.writeValueAsString(row));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private String toCsv(Object row) {
+        var node = objectMapper.valueToTree(row);
+
+        return columns
+                .stream()
+                .map(c -> node.at("/" + c.replace('.', '/')))
+                .map(v -> v.isMissingNode() || v.isNull() ? "" : escape(v.asText()))
+                .collect(Collectors.joining(","));
+    }
+
+    private void writeLine(String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
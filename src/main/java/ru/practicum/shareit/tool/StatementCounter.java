@@ -0,0 +1,74 @@
+package ru.practicum.shareit.tool;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Считает SQL-запросы Hibernate, выполненные потоком обработки запроса,
+ * и пишет их число в shareit.hibernate.statements с тегом operation.
+ * Запросы, сделанные уже при асинхронной записи ответа, не учитываются.
+ */
+public class StatementCounter implements StatementInspector, AsyncHandlerInterceptor {
+    public static final String METRIC_NAME = "shareit.hibernate.statements";
+
+    private final ThreadLocal<int[]> statements = new ThreadLocal<>();
+    private final MeterRegistry registry;
+
+    public StatementCounter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static String operation(Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod))
+            return "none";
+
+        return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        var counter = statements.get();
+
+        if (counter != null)
+            counter[0]++;
+
+        return sql;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        statements.set(new int[1]);
+
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        record(handler);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        record(handler);
+    }
+
+    private void record(Object handler) {
+        var counter = statements.get();
+
+        if (counter == null)
+            return;
+
+        statements.remove();
+
+        DistributionSummary.builder(METRIC_NAME)
+                .baseUnit("statements")
+                .tag("operation", operation(handler))
+                .register(registry)
+                .record(counter[0]);
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.tool;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Фиксированный набор блокировок, ключ отображается на одну из них по хэшу.
+ * Операции над одним ключом сериализуются, над разными - почти всегда идут параллельно.
+ */
+public class StripedLocks {
+    private final Lock[] locks;
+    private final int mask;
+
+    public StripedLocks(int stripes) {
+        var size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+
+        this.locks = new Lock[size];
+        this.mask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock get(long key) {
+        return locks[index(key)];
+    }
+
+    /**
+     * Блокировки для набора ключей без повторов, в порядке номеров полос.
+     * Захват в этом порядке не дает двум потокам взаимно заблокировать друг друга.
+     */
+    public List<Lock> getAll(Collection<Long> keys) {
+        return keys
+                .stream()
+                .mapToInt(this::index)
+                .distinct()
+                .sorted()
+                .mapToObj(i -> locks[i])
+                .toList();
+    }
+
+    private int index(long key) {
+        var hash = Long.hashCode(key);
+
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
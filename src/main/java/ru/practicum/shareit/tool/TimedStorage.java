@@ -0,0 +1,64 @@
+package ru.practicum.shareit.tool;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Прокси хранилища, который замеряет каждый вызов таймером shareit.storage
+ * с тегами storage (класс реализации), operation (интерфейс.метод) и exception.
+ */
+public final class TimedStorage implements InvocationHandler {
+    public static final String METRIC_NAME = "shareit.storage";
+
+    private final Object target;
+    private final Class<?> storageType;
+    private final MeterRegistry registry;
+
+    private TimedStorage(Object target, Class<?> storageType, MeterRegistry registry) {
+        this.target = target;
+        this.storageType = storageType;
+        this.registry = registry;
+    }
+
+    public static Object wrap(Object target, Class<?> storageType, MeterRegistry registry) {
+        return Proxy.newProxyInstance(
+                storageType.getClassLoader(),
+                new Class<?>[]{storageType},
+                new TimedStorage(target, storageType, registry));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class)
+            return invokeTarget(method, args);
+
+        var sample = Timer.start(registry);
+        var exception = "none";
+
+        try {
+            return invokeTarget(method, args);
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .tag("storage", target.getClass().getSimpleName())
+                    .tag("operation", storageType.getSimpleName() + "." + method.getName())
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
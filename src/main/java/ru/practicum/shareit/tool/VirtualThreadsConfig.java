@@ -0,0 +1,83 @@
+package ru.practicum.shareit.tool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Режим виртуальных потоков (spring.threads.virtual.enabled=true): Tomcat обслуживает
+ * каждый запрос в своем виртуальном потоке, а доступ к пулу Hikari ограничивается
+ * семафором по размеру пула.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+    // размер пула Hikari по умолчанию, до старта пула getMaximumPoolSize() возвращает -1
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public static BeanPostProcessor gatedDataSourcePostProcessor(
+            @Value("${shareit.jdbc.gate.permits:0}") int permits,
+            @Value("${shareit.jdbc.gate.timeout:PT30S}") Duration timeout) {
+        // PriorityOrdered: семафор ставится прямо на пул, до обертки ReplicaRoutingConfig
+        class GatedDataSourcePostProcessor implements BeanPostProcessor, PriorityOrdered {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari))
+                    return bean;
+
+                return gate(hikari, permits, timeout);
+            }
+
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+        }
+
+        return new GatedDataSourcePostProcessor();
+    }
+
+    /**
+     * Семафор на пул: permits разрешений или, если они не заданы, по размеру пула.
+     */
+    static GatedDataSource gate(HikariDataSource hikari, int permits, Duration timeout) {
+        var poolSize = hikari.getMaximumPoolSize() > 0 ? hikari.getMaximumPoolSize() : HIKARI_DEFAULT_POOL_SIZE;
+
+        return new GatedDataSource(hikari, permits > 0 ? permits : poolSize, timeout);
+    }
+
+    @Bean
+    public MeterBinder jdbcGateMetrics(DataSource dataSource) {
+        return registry -> {
+            var gated = DataSourceUnwrapper.unwrap(dataSource, GatedDataSource.class);
+
+            if (gated == null)
+                return;
+
+            Gauge.builder("jdbc.gate.available", gated, GatedDataSource::availablePermits)
+                    .description("Свободные разрешения на соединение с БД")
+                    .register(registry);
+            Gauge.builder("jdbc.gate.waiting", gated, GatedDataSource::queueLength)
+                    .description("Потоки, ожидающие соединения с БД")
+                    .register(registry);
+
+            gated.bindWaitTimer(Timer.builder("jdbc.gate.wait")
+                    .description("Ожидание разрешения на соединение с БД")
+                    .register(registry));
+        };
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.user;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserToUpdateDto;
 
@@ -14,7 +15,12 @@ public class UserController {
     private final UserService userService;
 
     @GetMapping("/{id}")
-    public UserDto getUser(@PathVariable long id) {
+    public UserDto getUser(@PathVariable long id, WebRequest request) {
+        var revision = userService.getUserRevision(id);
+
+        if (request.checkNotModified(revision.etag(), revision.lastModifiedMillis()))
+            return null;
+
         return userService.getUser(id);
     }
 
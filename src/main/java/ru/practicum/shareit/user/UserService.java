@@ -2,7 +2,11 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.item.view.ItemViewProjection;
+import ru.practicum.shareit.tool.Revision;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserToUpdateDto;
 
@@ -10,8 +14,11 @@ import ru.practicum.shareit.user.dto.UserToUpdateDto;
 @RequiredArgsConstructor
 public class UserService {
     private final UserStorage userStorage;
+    private final ItemStorage itemStorage;
+    private final ItemViewProjection itemViews;
     private final UserMapper userMapper = new UserMapper();
 
+    @Transactional(readOnly = true)
     public UserDto getUser(long userId) {
         var userEntity = userStorage.getUser(userId)
                 .orElseThrow(() -> new NotFoundException("Не нашел userId в системе"));
@@ -19,14 +26,34 @@ public class UserService {
         return userMapper.toDto(userEntity);
     }
 
+    /**
+     * Берет версию из кэша пользователей, поэтому транзакция не открывается.
+     */
+    public Revision getUserRevision(long userId) {
+        var userEntity = userStorage.getUser(userId)
+                .orElseThrow(() -> new NotFoundException("Не нашел userId в системе"));
+
+        return Revision.of(userEntity.getVersion(), userEntity.getUpdated());
+    }
+
+    @Transactional
     public UserDto updateUser(UserDto user) {
         var userEntity = userMapper.toEntity(user);
 
+        if (user.id() != null) {
+            userStorage.getUser(user.id())
+                    .ifPresent(u -> userEntity.setVersion(u.getVersion()));
+        }
+
         userStorage.updateUser(userEntity);
 
+        if (user.id() != null)
+            onNameChanged(user.id());
+
         return userMapper.toDto(userEntity);
     }
 
+    @Transactional
     public UserDto updateUser(long userId, UserToUpdateDto user) {
         var userEntity = userStorage.getUser(userId)
                 .orElseThrow(() -> new NotFoundException("Не нашел userId в системе"));
@@ -38,9 +65,13 @@ public class UserService {
 
         userStorage.updateUser(userEntity);
 
+        if (user.name() != null)
+            onNameChanged(userId);
+
         return userMapper.toDto(userEntity);
     }
 
+    @Transactional
     public UserDto deleteUser(long userId) {
         var userEntity = userStorage.getUser(userId)
                 .orElseThrow(() -> new NotFoundException("Не нашел userId в системе"));
@@ -49,4 +80,11 @@ public class UserService {
 
         return userMapper.toDto(userEntity);
     }
+
+    /**
+     * Имя автора входит в комментарии вещей, поэтому у них меняется версия, а с ней и ETag.
+     */
+    private void onNameChanged(long userId) {
+        itemViews.onAuthorUpdated(itemStorage.touchItemsCommentedBy(userId));
+    }
 }
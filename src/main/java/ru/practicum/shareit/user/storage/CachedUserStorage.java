@@ -0,0 +1,101 @@
+package ru.practicum.shareit.user.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.tool.AfterCommit;
+import ru.practicum.shareit.tool.PrimaryReads;
+import ru.practicum.shareit.user.UserStorage;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Кэш пользователей поверх хранилища в БД. Наружу отдаются копии,
+ * чтобы изменения в сервисах не попадали в кэш до сохранения. Промах кэша читается из основной БД.
+ */
+@Component
+@Qualifier("CachedUserStorage")
+@Primary
+public class CachedUserStorage implements UserStorage {
+    private final UserStorage userStorage;
+    private final PrimaryReads primaryReads;
+    private final Cache<Long, UserEntity> users;
+
+    public CachedUserStorage(
+            @Qualifier("UserStorageInDB") UserStorage userStorage,
+            PrimaryReads primaryReads,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.cache.maximum-size:10000}") long maximumSize,
+            @Value("${shareit.cache.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.userStorage = userStorage;
+        this.primaryReads = primaryReads;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+    }
+
+    @Override
+    public Optional<UserEntity> getUser(long userId) {
+        var cached = users.getIfPresent(userId);
+
+        if (cached != null)
+            return Optional.of(copy(cached));
+
+        var userEntity = primaryReads.read(() -> userStorage.getUser(userId));
+
+        userEntity.ifPresent(u -> users.put(userId, copy(u)));
+
+        return userEntity;
+    }
+
+    @Override
+    public void updateUser(UserEntity user) {
+        try {
+            userStorage.updateUser(user);
+        } finally {
+            if (user.getId() != null)
+                invalidate(user.getId());
+        }
+    }
+
+    @Override
+    public void deleteUser(UserEntity user) {
+        try {
+            userStorage.deleteUser(user);
+        } finally {
+            invalidate(user.getId());
+        }
+    }
+
+    @Override
+    public boolean existsById(long userId) {
+        return getUser(userId).isPresent();
+    }
+
+    private void invalidate(long userId) {
+        // второй раз после коммита: до него другой поток мог перечитать и закэшировать старую запись
+        users.invalidate(userId);
+        AfterCommit.run(() -> users.invalidate(userId));
+    }
+
+    private static UserEntity copy(UserEntity userEntity) {
+        var copy = new UserEntity();
+        copy.setId(userEntity.getId());
+        copy.setName(userEntity.getName());
+        copy.setEmail(userEntity.getEmail());
+        copy.setVersion(userEntity.getVersion());
+        copy.setUpdated(userEntity.getUpdated());
+
+        return copy;
+    }
+}
@@ -2,8 +2,10 @@ package ru.practicum.shareit.user.storage;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.UpdateTimestamp;
 import ru.practicum.shareit.item.storage.ItemEntity;
 
+import java.time.Instant;
 import java.util.List;
 
 @Entity
@@ -11,7 +13,8 @@ import java.util.List;
 @Data
 public class UserEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     @Column(name = "user_id", nullable = false)
     private Long id;
 
@@ -20,6 +23,11 @@ public class UserEntity {
     @Column(nullable = false)
     private String email;
 
+    @Version
+    private long version;
+    @UpdateTimestamp
+    private Instant updated;
+
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "owner")
     private List<ItemEntity> items;
 
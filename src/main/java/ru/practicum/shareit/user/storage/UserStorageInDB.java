@@ -2,7 +2,6 @@ package ru.practicum.shareit.user.storage;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.UserStorage;
@@ -12,7 +11,6 @@ import java.util.Optional;
 @Component
 @RequiredArgsConstructor
 @Qualifier("UserStorageInDB")
-@Primary
 public class UserStorageInDB implements UserStorage {
     private final UserRepository userRepository;
     private final UserMapper userMapper = new UserMapper();
@@ -24,13 +22,12 @@ public class UserStorageInDB implements UserStorage {
 
     @Override
     public void updateUser(UserEntity user) {
-        userRepository.saveAndFlush(user);
+        userRepository.save(user);
     }
 
     @Override
     public void deleteUser(UserEntity user) {
         userRepository.delete(user);
-        userRepository.flush();
     }
 
     @Override
@@ -0,0 +1,97 @@
+-- схема на момент перехода на миграции; IF NOT EXISTS и ALTER оставлены, чтобы базы,
+-- созданные прежним schema.sql, доводились до той же схемы (baseline-version 0)
+
+CREATE TABLE if not exists Users(
+    user_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    updated TIMESTAMP WITH TIME ZONE,
+    CONSTRAINT uniqueEmails UNIQUE(email)
+);
+
+CREATE TABLE IF NOT exists item_requests(
+    request_id BIGINT PRIMARY KEY,
+    requestor_id BIGINT NOT NULL REFERENCES Users(user_id),
+    description VARCHAR(1000) NOT NULL,
+    created timestamp WITHOUT TIME ZONE NOT NULL,
+    closed BOOLEAN DEFAULT FALSE NOT NULL
+);
+
+CREATE TABLE IF NOT exists Items(
+    item_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    owner_id BIGINT REFERENCES Users(user_id),
+    name VARCHAR(100) NOT NULL,
+    description VARCHAR(100) NOT NULL,
+    available boolean,
+    version BIGINT DEFAULT 0 NOT NULL,
+    updated TIMESTAMP WITH TIME ZONE,
+    request_id BIGINT REFERENCES item_requests(request_id)
+);
+
+CREATE TABLE IF NOT exists Comments(
+    comment_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT REFERENCES Users(user_id),
+    item_id BIGINT REFERENCES Items(item_id),
+    text VARCHAR(1000) NOT NULL,
+    created timestamp WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT exists Bookings(
+    booking_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    booker_id BIGINT REFERENCES Users(user_id),
+    item_id BIGINT REFERENCES Items(item_id),
+    status VARCHAR(100) NOT NULL,
+    description VARCHAR(100),
+    start timestamp WITHOUT TIME ZONE NOT NULL,
+    finish timestamp WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT exists Outbox(
+    event_id BIGINT PRIMARY KEY,
+    type VARCHAR(100) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload VARCHAR(4000) NOT NULL,
+    created TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT exists bookings_booker_start_finish_idx ON Bookings(booker_id, start, finish);
+
+CREATE INDEX IF NOT exists bookings_item_start_finish_idx ON Bookings(item_id, start, finish);
+
+CREATE INDEX IF NOT exists items_owner_idx ON Items(owner_id, item_id);
+
+CREATE INDEX IF NOT exists comments_item_created_idx ON Comments(item_id, created);
+
+-- лента запросов читается от новых к старым по ключу (created, request_id)
+CREATE INDEX IF NOT exists item_requests_created_idx ON item_requests(created DESC, request_id DESC);
+
+CREATE INDEX IF NOT exists item_requests_requestor_created_idx ON item_requests(requestor_id, created DESC);
+
+-- версия и время изменения строки для ETag и Last-Modified в базах, созданных до появления колонок
+ALTER TABLE Users ADD COLUMN IF NOT exists version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE Users ADD COLUMN IF NOT exists updated TIMESTAMP WITH TIME ZONE;
+
+ALTER TABLE Items ADD COLUMN IF NOT exists version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE Items ADD COLUMN IF NOT exists updated TIMESTAMP WITH TIME ZONE;
+
+ALTER TABLE Items ADD COLUMN IF NOT exists request_id BIGINT REFERENCES item_requests(request_id);
+
+CREATE INDEX IF NOT exists items_request_idx ON Items(request_id);
+
+ALTER TABLE item_requests ADD COLUMN IF NOT exists closed BOOLEAN DEFAULT FALSE NOT NULL;
+
+-- идентификаторы выдаются из последовательностей пачками по 50, чтобы Hibernate мог группировать insert-ы
+CREATE SEQUENCE IF NOT exists users_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT exists items_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT exists comments_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT exists bookings_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT exists outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT exists item_requests_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,21 @@
+-- индексы под условия и порядок запросов репозиториев; планы запросов проверяет QueryPlanTests
+
+-- страницы броней арендатора: арендатор (и статус), затем порядок и курсор (start, booking_id)
+DROP INDEX IF EXISTS bookings_booker_start_finish_idx;
+
+CREATE INDEX bookings_booker_start_idx ON Bookings(booker_id, start, booking_id);
+
+CREATE INDEX bookings_booker_status_start_idx ON Bookings(booker_id, status, start, booking_id);
+
+-- пересекающиеся брони и календари вещей: вещь и статус, затем интервал
+CREATE INDEX bookings_item_status_start_idx ON Bookings(item_id, status, start, finish);
+
+-- комментарии вещи от новых к старым по курсору (created, comment_id)
+DROP INDEX IF EXISTS comments_item_created_idx;
+
+CREATE INDEX comments_item_created_idx ON Comments(item_id, created, comment_id);
+
+-- собственные запросы пользователя в порядке ленты
+DROP INDEX IF EXISTS item_requests_requestor_created_idx;
+
+CREATE INDEX item_requests_requestor_created_idx ON item_requests(requestor_id, created DESC, request_id DESC);
@@ -0,0 +1,2 @@
+-- вещи, которые комментировал пользователь: после его переименования у них меняется версия
+CREATE INDEX comments_user_item_idx ON Comments(user_id, item_id);
@@ -0,0 +1,9 @@
+-- в базах, созданных до последовательностей, id уже выданы IDENTITY; Hibernate берет из последовательности
+-- верхнюю границу пачки из 50 id, поэтому первая пачка должна начинаться после max(id)
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(user_id), 0) + 50 FROM Users);
+
+ALTER SEQUENCE items_seq RESTART WITH (SELECT COALESCE(MAX(item_id), 0) + 50 FROM Items);
+
+ALTER SEQUENCE comments_seq RESTART WITH (SELECT COALESCE(MAX(comment_id), 0) + 50 FROM Comments);
+
+ALTER SEQUENCE bookings_seq RESTART WITH (SELECT COALESCE(MAX(booking_id), 0) + 50 FROM Bookings);
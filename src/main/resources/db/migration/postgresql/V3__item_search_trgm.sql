@@ -0,0 +1,5 @@
+CREATE EXTENSION IF NOT exists pg_trgm;
+
+CREATE INDEX IF NOT exists items_name_trgm_idx ON Items USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT exists items_description_trgm_idx ON Items USING gin (lower(description) gin_trgm_ops);
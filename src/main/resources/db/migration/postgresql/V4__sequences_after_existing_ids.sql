@@ -0,0 +1,9 @@
+-- в базах, созданных до последовательностей, id уже выданы IDENTITY; Hibernate берет из последовательности
+-- верхнюю границу пачки из 50 id, поэтому первая пачка должна начинаться после max(id)
+SELECT setval('users_seq', COALESCE((SELECT MAX(user_id) FROM Users), 0) + 50, false);
+
+SELECT setval('items_seq', COALESCE((SELECT MAX(item_id) FROM Items), 0) + 50, false);
+
+SELECT setval('comments_seq', COALESCE((SELECT MAX(comment_id) FROM Comments), 0) + 50, false);
+
+SELECT setval('bookings_seq', COALESCE((SELECT MAX(booking_id) FROM Bookings), 0) + 50, false);
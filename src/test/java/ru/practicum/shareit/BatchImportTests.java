@@ -0,0 +1,106 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusRequestDto;
+import ru.practicum.shareit.exceptions.NotValidException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Пакетная загрузка: id берутся из последовательностей пачками, insert-ы уходят JDBC-пакетами,
+ * поэтому число подготовленных запросов не растет с размером пакета.
+ */
+@SpringBootTest
+class BatchImportTests {
+	private static final int ITEMS = 1_000;
+
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private BookingService bookingService;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private long ownerId;
+	private long bookerId;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		ownerId = TestUsers.create(userService).id();
+		bookerId = TestUsers.create(userService).id();
+
+		statistics.clear();
+	}
+
+	@Test
+	void itemsAreInsertedInJdbcBatches() {
+		var items = IntStream.range(0, ITEMS)
+				.mapToObj(i -> ItemDto.builder().name("item" + i).description("description").available(true).build())
+				.toList();
+
+		var created = itemService.createItems(items, ownerId);
+
+		assertEquals(ITEMS, created.size());
+		assertEquals(ITEMS, statistics.getEntityInsertCount());
+		// два пакета insert-ов и по запросу к последовательности на каждые 50 id
+		assertTrue(statistics.getPrepareStatementCount() < 50, "prepared: " + statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void bookingsBatchIsAllOrNothing() {
+		var itemId = itemService.createItem(
+				ItemDto.builder().name("item").description("description").available(true).build(),
+				ownerId).id();
+
+		var start = LocalDateTime.now().plusYears(1).withNano(0);
+		var bookings = new ArrayList<BookingDto>();
+
+		for (int i = 0; i < 100; i++) {
+			bookings.add(booking(itemId, start.plusHours(2L * i), start.plusHours(2L * i + 1)));
+		}
+
+		assertEquals(100, bookingService.createBookings(bookings, bookerId).size());
+
+		var overlapping = new ArrayList<BookingDto>();
+		overlapping.add(booking(itemId, start.minusDays(2), start.minusDays(1)));
+		overlapping.add(booking(itemId, start.plusMinutes(30), start.plusMinutes(90)));
+
+		assertThrows(NotValidException.class, () -> bookingService.createBookings(overlapping, bookerId));
+
+		var selfOverlapping = new ArrayList<BookingDto>();
+		selfOverlapping.add(booking(itemId, start.minusDays(4), start.minusDays(3)));
+		selfOverlapping.add(booking(itemId, start.minusDays(4).plusHours(1), start.minusDays(4).plusHours(2)));
+
+		assertThrows(NotValidException.class, () -> bookingService.createBookings(selfOverlapping, bookerId));
+
+		var stored = bookingService.streamItemsForUserId(BookingStatusRequestDto.ALL, bookerId).toList();
+
+		assertEquals(100, stored.size());
+	}
+
+	private BookingDto booking(long itemId, LocalDateTime start, LocalDateTime end) {
+		return BookingDto.builder().itemId(itemId).start(start).end(end).build();
+	}
+}
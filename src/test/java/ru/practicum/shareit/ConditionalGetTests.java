@@ -0,0 +1,126 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserToUpdateDto;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Условные GET вещей и пользователей: совпавший ETag дает 304,
+ * любое изменение представления, в том числе новый комментарий или новое имя его автора, меняет ETag.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTests {
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private BookingService bookingService;
+
+	@Test
+	void userEtagChangesOnUpdate() throws Exception {
+		var userId = TestUsers.create(userService).id();
+		var etag = etag("/users/" + userId, null);
+
+		mockMvc.perform(get("/users/{id}", userId).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		userService.updateUser(userId, UserToUpdateDto.builder().name("renamed").build());
+
+		mockMvc.perform(get("/users/{id}", userId).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void itemEtagChangesOnComment() throws Exception {
+		var ownerId = TestUsers.create(userService).id();
+		var bookerId = TestUsers.create(userService).id();
+		var itemId = itemService.createItem(
+				ItemDto.builder().name("item").description("description").available(true).build(),
+				ownerId).id();
+
+		bookingService.createBooking(BookingDto
+				.builder()
+				.itemId(itemId)
+				.start(LocalDateTime.now().minusDays(2).withNano(0))
+				.end(LocalDateTime.now().minusDays(1).withNano(0))
+				.build(), bookerId);
+
+		var etag = etag("/items/" + itemId, bookerId);
+		var ownerEtag = etag("/items/" + itemId, ownerId);
+
+		assertNotEquals(etag, ownerEtag);
+
+		mockMvc.perform(get("/items/{id}", itemId)
+						.header("X-Sharer-User-Id", bookerId)
+						.header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.VARY, "X-Sharer-User-Id"));
+
+		itemService.addComment(CommentDto.builder().text("отлично").build(), itemId, bookerId);
+
+		mockMvc.perform(get("/items/{id}", itemId)
+						.header("X-Sharer-User-Id", bookerId)
+						.header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void itemEtagChangesOnAuthorRename() throws Exception {
+		var ownerId = TestUsers.create(userService).id();
+		var bookerId = TestUsers.create(userService).id();
+		var itemId = itemService.createItem(
+				ItemDto.builder().name("item").description("description").available(true).build(),
+				ownerId).id();
+
+		bookingService.createBooking(BookingDto
+				.builder()
+				.itemId(itemId)
+				.start(LocalDateTime.now().minusDays(2).withNano(0))
+				.end(LocalDateTime.now().minusDays(1).withNano(0))
+				.build(), bookerId);
+		itemService.addComment(CommentDto.builder().text("отлично").build(), itemId, bookerId);
+
+		var etag = etag("/items/" + itemId, null);
+
+		userService.updateUser(bookerId, UserToUpdateDto.builder().name("renamed").build());
+
+		mockMvc.perform(get("/items/{id}", itemId).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.comments[0].authorName").value("renamed"));
+	}
+
+	private String etag(String path, Long userId) throws Exception {
+		var request = get(path);
+
+		if (userId != null)
+			request.header("X-Sharer-User-Id", userId);
+
+		return mockMvc.perform(request)
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+	}
+}
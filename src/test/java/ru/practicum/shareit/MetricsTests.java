@@ -0,0 +1,47 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Таймеры контроллеров и хранилищ и число SQL-запросов публикуются в /actuator/prometheus с перцентилями.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsTests {
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void controllerAndStorageMetricsArePublished() throws Exception {
+		mockMvc.perform(post("/users")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"name\": \"user\", \"email\": \"" + UUID.randomUUID() + "@mail.ru\"}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/items/search").param("text", "drill"))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString(
+						"operation=\"ItemController.findItemsByText\",outcome=\"SUCCESS\"")))
+				.andExpect(content().string(containsString(
+						"operation=\"UserStorage.updateUser\",storage=\"UserStorageInDB\",quantile=\"0.99\"}")))
+				.andExpect(content().string(containsString(
+						"shareit_hibernate_statements{operation=\"UserController.postUser\",quantile=\"0.5\"}")));
+	}
+}
@@ -0,0 +1,102 @@
+package ru.practicum.shareit;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Миграции поверх базы, где уже есть строки с id, выданными IDENTITY до последовательностей:
+ * первая пачка id, которую Hibernate возьмет из последовательности, начинается после них.
+ * PostgreSQL проверяется, если задан -Dshareit.explain.postgres-url=jdbc:postgresql://...
+ */
+class MigrationTests {
+	private static final String POSTGRES_URL = "shareit.explain.postgres-url";
+	private static final int ALLOCATION_SIZE = 50;
+	private static final Map<String, String> SEQUENCES = Map.of(
+			"users_seq", "SELECT MAX(user_id) FROM Users",
+			"items_seq", "SELECT MAX(item_id) FROM Items",
+			"comments_seq", "SELECT MAX(comment_id) FROM Comments",
+			"bookings_seq", "SELECT MAX(booking_id) FROM Bookings");
+
+	@Test
+	void h2SequencesStartAfterExistingIds() throws SQLException {
+		var url = "jdbc:h2:mem:legacy-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+		var flyway = Flyway.configure()
+				.dataSource(url, "sa", "")
+				.locations("classpath:db/migration/common", "classpath:db/migration/h2");
+
+		try (var connection = DriverManager.getConnection(url, "sa", "")) {
+			checkSequences(flyway, connection, "SELECT NEXT VALUE FOR %s");
+		}
+	}
+
+	@Test
+	void postgresSequencesStartAfterExistingIds() throws SQLException {
+		var url = System.getProperty(POSTGRES_URL);
+
+		assumeTrue(url != null, "PostgreSQL не задан: -D" + POSTGRES_URL);
+
+		var schema = "legacy_" + UUID.randomUUID().toString().replace("-", "");
+		var flyway = Flyway.configure()
+				.dataSource(url, null, null)
+				.schemas(schema)
+				.locations("classpath:db/migration/common", "classpath:db/migration/postgresql");
+
+		try (var connection = DriverManager.getConnection(url); var statement = connection.createStatement()) {
+			try {
+				statement.execute("set search_path to " + schema + ", public");
+				checkSequences(flyway, connection, "SELECT nextval('%s')");
+			} finally {
+				statement.execute("drop schema if exists " + schema + " cascade");
+			}
+		}
+	}
+
+	private void checkSequences(FluentConfiguration flyway, Connection connection, String nextValue)
+			throws SQLException {
+		// база до последовательностей: таблицы из V1, id выданы IDENTITY
+		flyway.target("1").load().migrate();
+
+		try (var statement = connection.createStatement()) {
+			for (int i = 0; i < 70; i++)
+				statement.execute("INSERT INTO Users(name, email) VALUES ('user', 'user" + i + "@mail.ru')");
+
+			statement.execute("INSERT INTO Items(owner_id, name, description, available) VALUES (1, 'item', 'item', true)");
+			statement.execute("INSERT INTO Bookings(booker_id, item_id, status, start, finish) "
+					+ "VALUES (2, 1, 'APPROVED', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+			statement.execute("INSERT INTO Comments(user_id, item_id, text, created) "
+					+ "VALUES (2, 1, 'text', CURRENT_TIMESTAMP)");
+		}
+
+		flyway.target("latest").load().migrate();
+
+		try (var statement = connection.createStatement()) {
+			for (var entry : SEQUENCES.entrySet()) {
+				long maxId;
+				long next;
+
+				try (var rs = statement.executeQuery(entry.getValue())) {
+					rs.next();
+					maxId = rs.getLong(1);
+				}
+
+				try (var rs = statement.executeQuery(nextValue.formatted(entry.getKey()))) {
+					rs.next();
+					next = rs.getLong(1);
+				}
+
+				// оптимизатор pooled выдает id next - 49 .. next
+				assertTrue(next - ALLOCATION_SIZE + 1 > maxId, entry.getKey() + ": " + next + " <= " + maxId);
+			}
+		}
+	}
+}
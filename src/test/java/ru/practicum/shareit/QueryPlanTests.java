@@ -0,0 +1,351 @@
+package ru.practicum.shareit;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxRepository;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Для каждого запроса репозиториев записывается SQL, который строит Hibernate, и проверяется
+ * его план: в H2 - что таблицы не читаются целиком (tableScan), в PostgreSQL - что при
+ * enable_seqscan = off не остается Seq Scan, то есть для условий запроса есть индекс,
+ * а страницы по курсору из INDEX_ORDERED обходятся без сортировки.
+ * PostgreSQL проверяется, если задан -Dshareit.explain.postgres-url=jdbc:postgresql://...:
+ * схема накатывается миграциями во временную схему, планы строятся общие (generic) без значений параметров.
+ */
+@SpringBootTest
+class QueryPlanTests {
+	private static final String POSTGRES_URL = "shareit.explain.postgres-url";
+	private static final LocalDateTime NOW = LocalDateTime.now();
+	private static final Limit PAGE = Limit.of(20);
+
+	// чтение таблицы целиком намеренно: индексы в памяти строятся при старте
+	private static final Set<String> FULL_SCANS = Set.of("items.streamSearchFields", "requests.streamOpen");
+	// функции pg_trgm в H2 нет, запрос только готовится, чтобы записать его текст
+	private static final Set<String> POSTGRES_ONLY = Set.of("items.findIdsByTextRanked");
+	// страницы одной таблицы, которые PostgreSQL читает из индекса уже в порядке курсора, без сортировки
+	private static final Set<String> INDEX_ORDERED = Set.of(
+			"bookings.findPageByBookerId",
+			"bookings.findPageByBookerIdAndStatus",
+			"bookings.findCurrentPageByBookerId",
+			"bookings.findPastPageByBookerId",
+			"bookings.findFuturePageByBookerId",
+			"comments.findPageByItemId",
+			"requests.findByRequestorId",
+			"requests.findPageOfOthers");
+
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private CommentRepository commentRepository;
+	@Autowired
+	private ItemRequestRepository itemRequestRepository;
+	@Autowired
+	private OutboxRepository outboxRepository;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private DataSource dataSource;
+
+	@Test
+	void h2PlansUseIndexes() throws SQLException {
+		var failures = new ArrayList<String>();
+
+		try (var connection = dataSource.getConnection()) {
+			for (var entry : recordStatements().entrySet()) {
+				if (POSTGRES_ONLY.contains(entry.getKey()))
+					continue;
+
+				for (var sql : entry.getValue()) {
+					var plan = explainH2(connection, sql);
+
+					if (plan.contains(".tableScan") && !FULL_SCANS.contains(entry.getKey()))
+						failures.add(entry.getKey() + "\n" + plan);
+				}
+			}
+		}
+
+		assertEquals(List.of(), failures);
+	}
+
+	@Test
+	void postgresPlansUseIndexes() throws SQLException {
+		var url = System.getProperty(POSTGRES_URL);
+
+		assumeTrue(url != null, "PostgreSQL не задан: -D" + POSTGRES_URL);
+
+		var statements = recordStatements();
+		var schema = "explain_" + UUID.randomUUID().toString().replace("-", "");
+		var failures = new ArrayList<String>();
+
+		Flyway.configure()
+				.dataSource(url, null, null)
+				.schemas(schema)
+				.locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+				.load()
+				.migrate();
+
+		try (var connection = DriverManager.getConnection(url); var statement = connection.createStatement()) {
+			try {
+				statement.execute("set search_path to " + schema + ", public");
+				statement.execute("set enable_seqscan = off");
+				statement.execute("set plan_cache_mode = force_generic_plan");
+
+				for (var entry : statements.entrySet()) {
+					for (var sql : entry.getValue()) {
+						var plan = explainPostgres(connection, sql);
+
+						if (plan.contains("Seq Scan") && !FULL_SCANS.contains(entry.getKey())
+								|| plan.contains("Sort") && INDEX_ORDERED.contains(entry.getKey()))
+							failures.add(entry.getKey() + "\n" + plan);
+					}
+				}
+			} finally {
+				statement.execute("drop schema " + schema + " cascade");
+			}
+		}
+
+		assertEquals(List.of(), failures);
+	}
+
+	private Map<String, Runnable> queries() {
+		var ids = List.of(1L, 2L);
+		var statuses = BookingStatus.ACTIVE;
+		var queries = new LinkedHashMap<String, Runnable>();
+
+		queries.put("bookings.findWithDetailsById", () -> bookingRepository.findWithDetailsById(1));
+		queries.put("bookings.existsByBookerId", () -> bookingRepository.existsByBookerId(1));
+		queries.put("bookings.findPageByBookerId", () ->
+				bookingRepository.findPageByBookerId(1, NOW, Long.MAX_VALUE, PAGE));
+		queries.put("bookings.findPageByBookerIdAndStatus", () ->
+				bookingRepository.findPageByBookerIdAndStatus(1, BookingStatus.WAITING, NOW, Long.MAX_VALUE, PAGE));
+		queries.put("bookings.findCurrentPageByBookerId", () ->
+				bookingRepository.findCurrentPageByBookerId(1, NOW, NOW, Long.MAX_VALUE, PAGE));
+		queries.put("bookings.findPastPageByBookerId", () ->
+				bookingRepository.findPastPageByBookerId(1, NOW, NOW, Long.MAX_VALUE, PAGE));
+		queries.put("bookings.findFuturePageByBookerId", () ->
+				bookingRepository.findFuturePageByBookerId(1, NOW, NOW, Long.MAX_VALUE, PAGE));
+		queries.put("bookings.findPageByItemOwner", () ->
+				bookingRepository.findPageByItemOwner(1, NOW, Long.MAX_VALUE, PAGE));
+		queries.put("bookings.findPageByItemOwnerAndStatus", () ->
+				bookingRepository.findPageByItemOwnerAndStatus(1, BookingStatus.WAITING, NOW, Long.MAX_VALUE, PAGE));
+		queries.put("bookings.findCurrentPageByItemOwner", () ->
+				bookingRepository.findCurrentPageByItemOwner(1, NOW, NOW, Long.MAX_VALUE, PAGE));
+		queries.put("bookings.findPastPageByItemOwner", () ->
+				bookingRepository.findPastPageByItemOwner(1, NOW, NOW, Long.MAX_VALUE, PAGE));
+		queries.put("bookings.findFuturePageByItemOwner", () ->
+				bookingRepository.findFuturePageByItemOwner(1, NOW, NOW, Long.MAX_VALUE, PAGE));
+		queries.put("bookings.existsOverlapping", () ->
+				bookingRepository.existsOverlapping(1, statuses, NOW, NOW.plusDays(1)));
+		queries.put("bookings.findOverlapping", () ->
+				bookingRepository.findOverlapping(1, statuses, NOW, NOW.plusDays(1)));
+		queries.put("bookings.findByItemIdAndStatusIn", () -> bookingRepository.findByItemIdAndStatusIn(1, statuses));
+		queries.put("bookings.findByItemIdInAndStatusIn", () -> bookingRepository.findByItemIdInAndStatusIn(ids, statuses));
+		queries.put("bookings.streamByItemOwner", () -> consume(bookingRepository.streamByItemOwner(1)));
+		queries.put("bookings.existsByBookerIdAndItemIdAndEndLessThan", () ->
+				bookingRepository.existsByBookerIdAndItemIdAndEndLessThan(1, 1, NOW));
+
+		queries.put("items.findIdsByTextRanked", () -> itemRepository.findIdsByTextRanked("дрель", "дрель", true, 0, 20));
+		queries.put("items.streamSearchFields", () -> consume(itemRepository.streamSearchFields()));
+		queries.put("items.streamByOwnerId", () -> consume(itemRepository.streamByOwnerId(1)));
+		queries.put("items.findAndLockById", () -> itemRepository.findAndLockById(1));
+		queries.put("items.existsByOwnerId", () -> itemRepository.existsByOwnerId(1));
+		queries.put("items.touch", () -> itemRepository.touch(1, Instant.now()));
+		queries.put("items.touchAll", () -> itemRepository.touchAll(ids, Instant.now()));
+		queries.put("items.findByOwnerId", () -> itemRepository.findByOwnerId(1));
+		queries.put("items.findAllByRequestIdIn", () -> itemRepository.findAllByRequestIdIn(ids));
+		queries.put("items.findIdsByOwnerId", () -> itemRepository.findIdsByOwnerId(1));
+
+		queries.put("comments.findAllByItemId", () -> commentRepository.findAllByItemId(1));
+		queries.put("comments.findAllByItemIdIn", () -> commentRepository.findAllByItemIdIn(ids));
+		queries.put("comments.findItemIdsByUserId", () -> commentRepository.findItemIdsByUserId(1));
+		queries.put("comments.findLatestIdsByItemIdIn", () -> commentRepository.findLatestIdsByItemIdIn(ids, 20));
+		queries.put("comments.findAllByIdIn", () -> commentRepository.findAllByIdIn(ids));
+		queries.put("comments.findPageByItemId", () ->
+				commentRepository.findPageByItemId(1, Timestamp.valueOf(NOW), Long.MAX_VALUE, PAGE));
+		queries.put("comments.countByItemIdIn", () -> commentRepository.countByItemIdIn(ids));
+
+		queries.put("requests.findByRequestorId", () -> itemRequestRepository.findByRequestorId(1));
+		queries.put("requests.streamOpen", () -> consume(itemRequestRepository.streamOpen()));
+		queries.put("requests.findPageOfOthers", () ->
+				itemRequestRepository.findPageOfOthers(1, NOW, Long.MAX_VALUE, PAGE));
+
+		queries.put("outbox.findOldest", () -> outboxRepository.findOldest(PAGE));
+
+		return queries;
+	}
+
+	/**
+	 * Выполняет запросы в откатываемых транзакциях и возвращает записанный SQL каждого.
+	 */
+	private Map<String, List<String>> recordStatements() {
+		var statements = new LinkedHashMap<String, List<String>>();
+
+		var sqlRecorder = (SqlRecorder) dataSource;
+
+		queries().forEach((name, query) -> {
+			sqlRecorder.start();
+
+			try {
+				transactionTemplate.executeWithoutResult(status -> {
+					status.setRollbackOnly();
+					query.run();
+				});
+			} catch (RuntimeException e) {
+				if (!POSTGRES_ONLY.contains(name))
+					throw e;
+			}
+
+			var recorded = sqlRecorder.stop();
+
+			assertFalse(recorded.isEmpty(), "Запрос не записан: " + name);
+			statements.put(name, recorded);
+		});
+
+		return statements;
+	}
+
+	private static void consume(Stream<?> stream) {
+		try (stream) {
+			stream.forEach(row -> { });
+		}
+	}
+
+	private static String explainH2(Connection connection, String sql) throws SQLException {
+		try (var statement = connection.prepareStatement("explain " + sql); var plan = statement.executeQuery()) {
+			plan.next();
+
+			return plan.getString(1);
+		}
+	}
+
+	private static String explainPostgres(Connection connection, String sql) throws SQLException {
+		var parameters = 0;
+		var numbered = new StringBuilder();
+
+		for (var c : sql.toCharArray()) {
+			if (c == '?')
+				numbered.append('$').append(++parameters);
+			else
+				numbered.append(c);
+		}
+
+		var nulls = IntStream.range(0, parameters)
+				.mapToObj(i -> "null")
+				.collect(Collectors.joining(", "));
+
+		try (var statement = connection.createStatement()) {
+			statement.execute("prepare explained as " + numbered);
+
+			try (var plan = statement.executeQuery(parameters == 0
+					? "explain execute explained"
+					: "explain execute explained(" + nulls + ")")) {
+				var lines = new ArrayList<String>();
+
+				while (plan.next())
+					lines.add(plan.getString(1));
+
+				return String.join("\n", lines);
+			} finally {
+				statement.execute("deallocate explained");
+			}
+		}
+	}
+
+	/**
+	 * Записывает текст запросов, которые готовит текущий поток между start и stop.
+	 */
+	static class SqlRecorder extends DelegatingDataSource {
+		private final ThreadLocal<List<String>> recorded = new ThreadLocal<>();
+
+		SqlRecorder(DataSource dataSource) {
+			super(dataSource);
+		}
+
+		void start() {
+			recorded.set(new ArrayList<>());
+		}
+
+		List<String> stop() {
+			var result = recorded.get();
+			recorded.remove();
+
+			return result;
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			return record(super.getConnection());
+		}
+
+		private Connection record(Connection connection) {
+			return (Connection) Proxy.newProxyInstance(
+					Connection.class.getClassLoader(),
+					new Class<?>[] {Connection.class},
+					(proxy, method, args) -> {
+						var statements = recorded.get();
+
+						if (statements != null && method.getName().equals("prepareStatement"))
+							statements.add((String) args[0]);
+
+						try {
+							return method.invoke(connection, args);
+						} catch (InvocationTargetException e) {
+							throw e.getCause();
+						}
+					});
+		}
+	}
+
+	@TestConfiguration
+	static class SqlRecorderConfig {
+		@Bean
+		static BeanPostProcessor sqlRecorderPostProcessor() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource dataSource && !(bean instanceof SqlRecorder)
+							? new SqlRecorder(dataSource)
+							: bean;
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.tool.ReadYourWrites;
+import ru.practicum.shareit.tool.ReplicaRoutingDataSource;
+import ru.practicum.shareit.user.UserService;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Две реплики - отдельные базы H2 в памяти, третья недоступна. Реплики не получают изменений
+ * основной БД, поэтому по ответу видно, откуда шло чтение. Занятая реплика уступает очередь,
+ * но из обхода не выводится. Кэши и представления вещей загружаются только из основной БД.
+ */
+@SpringBootTest(properties = "shareit.datasource.read-your-writes=PT2S")
+@AutoConfigureMockMvc
+class ReplicaRoutingTests {
+	private static final long REPLICA_USER = 1_000_000;
+	private static final List<JdbcTemplate> REPLICAS = new ArrayList<>();
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private DataSource dataSource;
+	@Autowired
+	private MeterRegistry meterRegistry;
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@DynamicPropertySource
+	static void replicas(DynamicPropertyRegistry registry) {
+		for (int i = 0; i < 2; i++) {
+			var url = "jdbc:h2:mem:replica" + i + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+			var replica = new DriverManagerDataSource(url, "sa", "");
+
+			Flyway.configure()
+					.dataSource(replica)
+					.locations("classpath:db/migration/common", "classpath:db/migration/h2")
+					.load()
+					.migrate();
+
+			var jdbc = new JdbcTemplate(replica);
+
+			jdbc.update("INSERT INTO users(user_id, name, email) VALUES (?, 'replica', 'replica@mail.ru')", REPLICA_USER);
+			jdbc.update(
+					"INSERT INTO item_requests(request_id, requestor_id, description, created) VALUES (1, ?, ?, NOW())",
+					REPLICA_USER,
+					"replica" + i);
+
+			REPLICAS.add(jdbc);
+			registry.add("shareit.datasource.replicas[" + i + "].url", () -> url);
+		}
+
+		registry.add("shareit.datasource.replicas[2].url", () -> "jdbc:h2:tcp://localhost:1/mem:down");
+	}
+
+	@Test
+	void readsAreSpreadOverHealthyReplicas() throws Exception {
+		assertInstanceOf(ReplicaRoutingDataSource.class, dataSource);
+
+		// пользователь проверяется по кэшу, а кэш загружается из основной БД
+		new JdbcTemplate(dataSource).update(
+				"MERGE INTO users(user_id, name, email) KEY(user_id) VALUES (?, 'replica', 'replica@mail.ru')",
+				REPLICA_USER);
+
+		Set<String> seen = new HashSet<>();
+
+		for (int i = 0; i < 10; i++) {
+			var body = mockMvc.perform(get("/requests").header("X-Sharer-User-Id", REPLICA_USER))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.length()").value(1))
+					.andReturn()
+					.getResponse()
+					.getContentAsString();
+
+			seen.add(body.contains("replica0") ? "replica0" : body.contains("replica1") ? "replica1" : body);
+		}
+
+		assertEquals(Set.of("replica0", "replica1"), seen);
+		assertTrue(meterRegistry.get("shareit.datasource.replica.failures").tag("replica", "replica2")
+				.functionCounter().count() >= 1);
+	}
+
+	@Test
+	void busyReplicaIsSkippedWithoutMarkingDown() throws SQLException {
+		var replicas = new LinkedHashMap<String, DataSource>();
+
+		replicas.put("busy", failing(new SQLTransientConnectionException("пул занят")));
+		replicas.put("down", failing(new SQLTransientConnectionException("нет соединения", new SQLException())));
+		replicas.put("healthy", REPLICAS.get(0).getDataSource());
+
+		// основной БД здесь служит вторая реплика
+		var routing = new ReplicaRoutingDataSource(
+				REPLICAS.get(1).getDataSource(),
+				replicas,
+				new ReadYourWrites(Duration.ofSeconds(5), 100),
+				Duration.ofMinutes(1));
+
+		for (int i = 0; i < replicas.size(); i++) {
+			try (var connection = routing.getConnection()) {
+				connection.setReadOnly(true);
+
+				try (var statement = connection.createStatement();
+					 var rs = statement.executeQuery("SELECT description FROM item_requests WHERE request_id = 1")) {
+					rs.next();
+					assertEquals("replica0", rs.getString(1));
+				}
+			}
+		}
+
+		assertEquals(2, routing.availableReplicas());
+	}
+
+	@Test
+	void ownWritesAreReadFromPrimaryWithinWindow() throws Exception {
+		var userId = TestUsers.create(userService).id();
+
+		mockMvc.perform(post("/requests")
+						.header("X-Sharer-User-Id", userId)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"description\": \"primary\"}"))
+				.andExpect(status().isOk());
+
+		// запись ушла только в основную БД
+		assertEquals(1, new JdbcTemplate(dataSource).queryForObject(
+				"SELECT COUNT(*) FROM item_requests WHERE requestor_id = ?", Integer.class, userId));
+
+		for (var replica : REPLICAS) {
+			assertEquals(0, replica.queryForObject(
+					"SELECT COUNT(*) FROM item_requests WHERE requestor_id = ?", Integer.class, userId));
+		}
+
+		mockMvc.perform(get("/requests").header("X-Sharer-User-Id", userId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].description").value("primary"));
+
+		Thread.sleep(2500);
+
+		// окно закрылось, чтение снова идет в реплику, где изменения еще нет
+		mockMvc.perform(get("/requests").header("X-Sharer-User-Id", userId))
+				.andExpect(status().isOk())
+				.andExpect(content().json("[]"));
+	}
+
+	@Test
+	void itemIsReadFromPrimaryRightAfterUpdate() throws Exception {
+		var ownerId = TestUsers.create(userService).id();
+		var readerId = TestUsers.create(userService).id();
+
+		var body = mockMvc.perform(post("/items")
+						.header("X-Sharer-User-Id", ownerId)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"name\": \"Дрель\", \"description\": \"Простая дрель\", \"available\": true}"))
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+		var itemId = objectMapper.readTree(body).get("id").asLong();
+
+		// реплики не получают изменений, поэтому вещь и читатель есть только в основной БД
+		mockMvc.perform(get("/items/{id}", itemId).header("X-Sharer-User-Id", readerId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name").value("Дрель"));
+
+		mockMvc.perform(patch("/items/{id}", itemId)
+						.header("X-Sharer-User-Id", ownerId)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"name\": \"Дрель+\"}"))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get("/items/{id}", itemId).header("X-Sharer-User-Id", readerId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name").value("Дрель+"));
+
+		// пересборка представления в фоне тоже читает основную БД
+		Thread.sleep(500);
+
+		for (var userId : List.of(ownerId, readerId)) {
+			mockMvc.perform(get("/items/{id}", itemId).header("X-Sharer-User-Id", userId))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.name").value("Дрель+"));
+		}
+	}
+
+	private DataSource failing(SQLException exception) {
+		return new AbstractDataSource() {
+			@Override
+			public Connection getConnection() throws SQLException {
+				throw exception;
+			}
+
+			@Override
+			public Connection getConnection(String username, String password) throws SQLException {
+				throw exception;
+			}
+		};
+	}
+}
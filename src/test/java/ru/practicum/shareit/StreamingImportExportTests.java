@@ -0,0 +1,124 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.tool.ImportReport;
+import ru.practicum.shareit.tool.RowFormat;
+import ru.practicum.shareit.tool.RowReader;
+import ru.practicum.shareit.tool.RowWriter;
+import ru.practicum.shareit.user.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Построчный импорт: ошибочные строки попадают в отчет, остальные сохраняются пачками.
+ * Выгрузка в CSV читается обратно тем же импортом.
+ */
+@SpringBootTest
+class StreamingImportExportTests {
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private BookingService bookingService;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private Validator validator;
+
+	private long ownerId;
+	private long bookerId;
+
+	@BeforeEach
+	void setUp() {
+		ownerId = TestUsers.create(userService).id();
+		bookerId = TestUsers.create(userService).id();
+	}
+
+	@Test
+	void itemsCsvImportSkipsInvalidRowsAndExportsBack() throws IOException {
+		var csv = "name,description,available\n" +
+				IntStream.range(0, 1_200)
+						.mapToObj(i -> "item" + i + ",\"description, " + i + "\",true")
+						.collect(Collectors.joining("\n")) +
+				"\n" + "long".repeat(26) + ",description,true" +
+				"\nbroken,,true\n\"unclosed,description,true\n";
+
+		var report = itemService.importItems(read(csv, RowFormat.CSV, ItemDto.class), ownerId);
+
+		assertEquals(1_200, report.getImported());
+		assertEquals(3, report.getRejected());
+		assertEquals(List.of(1_202L, 1_203L, 1_204L), report.getErrors().stream().map(ImportReport.RowError::line).toList());
+
+		var exported = export(RowFormat.CSV, List.of("name", "description", "available"), itemService.exportItems(ownerId));
+		var otherId = TestUsers.create(userService).id();
+		var reimported = itemService.importItems(read(exported, RowFormat.CSV, ItemDto.class), otherId);
+
+		assertEquals(1_200, reimported.getImported());
+		assertEquals(0, reimported.getRejected());
+	}
+
+	@Test
+	void bookingsImportRejectsOnlyConflictingRows() throws IOException {
+		var itemId = itemService.createItem(
+				ItemDto.builder().name("item").description("description").available(true).build(),
+				ownerId).id();
+
+		var ndjson = String.join("\n",
+				booking(itemId, "APPROVED", "2020-01-01T10:00:00", "2020-01-02T10:00:00"),
+				booking(itemId, null, "2020-01-01T12:00:00", "2020-01-03T10:00:00"),
+				booking(itemId, "REJECTED", "2020-01-01T12:00:00", "2020-01-03T10:00:00"),
+				booking(itemId, null, "2021-01-01T10:00:00", "2020-01-01T10:00:00"),
+				"{\"itemId\": " + itemId + ", \"start\": \"2022-01-01T10:00:00\"}");
+
+		var report = bookingService.importBookings(read(ndjson, RowFormat.NDJSON, BookingDto.class), ownerId);
+
+		assertEquals(2, report.getImported());
+		assertEquals(3, report.getRejected());
+
+		var exported = export(RowFormat.NDJSON, List.of(), bookingService.exportBookings(ownerId));
+
+		assertEquals(2, exported.lines().count());
+	}
+
+	private String booking(long itemId, String status, String start, String end) {
+		return "{\"itemId\": " + itemId + ", \"booker\": {\"id\": " + bookerId + "}, " +
+				(status == null ? "" : "\"status\": \"" + status + "\", ") +
+				"\"start\": \"" + start + "\", \"end\": \"" + end + "\"}";
+	}
+
+	private <T> Stream<RowReader.Row<T>> read(String body, RowFormat format, Class<T> type) {
+		var inputStream = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+
+		return RowReader.read(inputStream, format, objectMapper, validator, type);
+	}
+
+	private <T> String export(RowFormat format, List<String> columns, Consumer<Consumer<T>> export) throws IOException {
+		var outputStream = new ByteArrayOutputStream();
+		var writer = new RowWriter(outputStream, format, objectMapper, columns);
+
+		export.accept(writer::write);
+		writer.flush();
+
+		return outputStream.toString(StandardCharsets.UTF_8);
+	}
+}
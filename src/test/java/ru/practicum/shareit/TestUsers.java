@@ -0,0 +1,23 @@
+package ru.practicum.shareit;
+
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.UUID;
+
+/**
+ * Пользователи для тестов. Почта уникальная, поэтому тесты одного контекста не мешают друг другу.
+ */
+public final class TestUsers {
+	private TestUsers() {
+
+	}
+
+	public static UserDto create(UserService userService) {
+		return userService.updateUser(UserDto
+				.builder()
+				.name("user")
+				.email(UUID.randomUUID() + "@mail.ru")
+				.build());
+	}
+}
@@ -0,0 +1,178 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.TestUsers;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusRequestDto;
+import ru.practicum.shareit.exceptions.NotValidException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Slf4j
+class BookingConcurrencyTests {
+	private static final int ATTEMPTS_PER_THREAD = 20;
+
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private BookingService bookingService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 4, 16, 64})
+	void sameItemIsNeverDoubleBooked(int threads) throws Exception {
+		var ownerId = TestUsers.create(userService).id();
+		var bookerIds = new ArrayList<Long>();
+		for (int i = 0; i < threads; i++) {
+			bookerIds.add(TestUsers.create(userService).id());
+		}
+
+		var itemId = itemService.createItem(
+				ItemDto.builder().name("item").description("description").available(true).build(),
+				ownerId).id();
+
+		var start = LocalDateTime.now().plusYears(1).withNano(0);
+		var created = new AtomicInteger();
+		var ready = new CountDownLatch(threads);
+		var go = new CountDownLatch(1);
+		var tasks = new ArrayList<Callable<Void>>();
+
+		for (var bookerId : bookerIds) {
+			tasks.add(() -> {
+				ready.countDown();
+				go.await();
+
+				for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+					var from = start.plusHours(attempt);
+
+					try {
+						bookingService.createBooking(BookingDto
+								.builder()
+								.itemId(itemId)
+								.start(from)
+								.end(from.plusMinutes(90))
+								.build(), bookerId);
+						created.incrementAndGet();
+					} catch (NotValidException e) {
+						// окно уже занято другим потоком
+					}
+				}
+
+				return null;
+			});
+		}
+
+		long elapsed;
+		try (var executor = Executors.newFixedThreadPool(threads)) {
+			var futures = tasks.stream().map(executor::submit).toList();
+
+			ready.await();
+			var began = System.nanoTime();
+			go.countDown();
+
+			for (var future : futures) {
+				future.get();
+			}
+
+			elapsed = System.nanoTime() - began;
+		}
+
+		var attempts = threads * ATTEMPTS_PER_THREAD;
+		log.info("threads={}, attempts={}, created={}, throughput={} attempts/s",
+				threads, attempts, created.get(), attempts * 1_000_000_000L / Math.max(1, elapsed));
+
+		var bookings = bookingService.streamItemsForItemOwnerId(BookingStatusRequestDto.ALL, ownerId).toList();
+
+		assertEquals(created.get(), bookings.size());
+		assertNoOverlaps(bookings);
+	}
+
+	@Test
+	void rejectedBookingIsNotApprovedOverNewOne() {
+		var ownerId = TestUsers.create(userService).id();
+		var itemId = itemService.createItem(
+				ItemDto.builder().name("item").description("description").available(true).build(),
+				ownerId).id();
+
+		var start = LocalDateTime.now().plusYears(2).withNano(0);
+		var booking = BookingDto.builder().itemId(itemId).start(start).end(start.plusHours(2)).build();
+
+		var rejected = bookingService.createBooking(booking, TestUsers.create(userService).id()).id();
+		bookingService.setBookingStatus(rejected, false, ownerId);
+
+		// интервал освободился, и его заняла новая бронь
+		var waiting = bookingService.createBooking(booking, TestUsers.create(userService).id()).id();
+
+		assertThrows(NotValidException.class, () -> bookingService.setBookingStatus(rejected, true, ownerId));
+
+		var bookings = bookingService.streamItemsForItemOwnerId(BookingStatusRequestDto.ALL, ownerId).toList();
+
+		assertEquals(
+				List.of(BookingStatus.REJECTED, BookingStatus.WAITING),
+				bookings
+						.stream()
+						.sorted(Comparator.comparing(BookingDto::id))
+						.map(BookingDto::status)
+						.toList());
+		assertEquals(waiting, bookings.stream().filter(b -> b.status() == BookingStatus.WAITING).findFirst().get().id());
+	}
+
+	@Test
+	void intervalFreedByAnotherInstanceCanBeBooked() {
+		var ownerId = TestUsers.create(userService).id();
+		var itemId = itemService.createItem(
+				ItemDto.builder().name("item").description("description").available(true).build(),
+				ownerId).id();
+
+		var start = LocalDateTime.now().plusYears(3).withNano(0);
+		var booking = BookingDto.builder().itemId(itemId).start(start).end(start.plusHours(2)).build();
+
+		var first = bookingService.createBooking(booking, TestUsers.create(userService).id()).id();
+
+		// отказ на другом экземпляре: БД изменилась, а календарь этого экземпляра об этом не знает
+		jdbcTemplate.update("UPDATE Bookings SET status = ? WHERE booking_id = ?", BookingStatus.REJECTED.ordinal(), first);
+
+		var second = bookingService.createBooking(booking, TestUsers.create(userService).id());
+
+		assertEquals(BookingStatus.WAITING, second.status());
+		assertThrows(NotValidException.class, () -> bookingService.createBooking(booking, TestUsers.create(userService).id()));
+	}
+
+	private void assertNoOverlaps(List<BookingDto> bookings) {
+		var sorted = bookings
+				.stream()
+				.sorted(Comparator.comparing(BookingDto::start))
+				.toList();
+
+		for (int i = 1; i < sorted.size(); i++) {
+			var previous = sorted.get(i - 1).end();
+			var current = sorted.get(i).start();
+
+			assertTrue(!current.isBefore(previous), "Пересекающиеся брони: " + sorted.get(i - 1) + ", " + sorted.get(i));
+		}
+	}
+}
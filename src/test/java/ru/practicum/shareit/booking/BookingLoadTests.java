@@ -0,0 +1,172 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.tool.GatedDataSource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузка на эндпоинты броней в обоих режимах обработки запросов: много одновременных
+ * клиентов читают страницы своих броней, каждый десятый запрос создает бронь.
+ * Пропускная способность и p99 пишутся в лог, проверяется только отсутствие 5xx.
+ * В обычный прогон не входит: mvn -Pload test -Dtest=BookingLoadTests.
+ */
+@Slf4j
+@Tag("load")
+class BookingLoadTests {
+	private static final int CLIENTS = 200;
+	private static final int REQUESTS_PER_CLIENT = 25;
+	private static final int ITEMS = 20;
+	private static final int BOOKERS = 50;
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	void bookingEndpointsUnderLoad(boolean virtualThreads) throws Exception {
+		try (var context = new SpringApplicationBuilder(ShareItApp.class)
+				.run(
+						"--server.port=0",
+						"--spring.threads.virtual.enabled=" + virtualThreads,
+						"--logging.level.ru.practicum.shareit=WARN",
+						"--logging.level.ru.practicum.shareit.booking.BookingLoadTests=INFO",
+						"--logging.level.org.zalando.logbook=WARN");
+			 var client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+			assertEquals(virtualThreads, context.getBean(DataSource.class) instanceof GatedDataSource);
+
+			var baseUri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			var ownerId = createUser(client, baseUri, "owner");
+			var itemIds = new ArrayList<Long>();
+			var bookerIds = new ArrayList<Long>();
+
+			for (int i = 0; i < ITEMS; i++)
+				itemIds.add(createItem(client, baseUri, ownerId, i));
+			for (int i = 0; i < BOOKERS; i++)
+				bookerIds.add(createUser(client, baseUri, "booker" + i));
+
+			var latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+			var serverErrors = new AtomicInteger();
+			var created = new AtomicInteger();
+			var ready = new CountDownLatch(CLIENTS);
+			var go = new CountDownLatch(1);
+			var tasks = new ArrayList<Callable<Void>>();
+
+			for (int c = 0; c < CLIENTS; c++) {
+				var clientIndex = c;
+
+				tasks.add(() -> {
+					ready.countDown();
+					go.await();
+
+					var random = ThreadLocalRandom.current();
+
+					for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+						var bookerId = bookerIds.get(random.nextInt(bookerIds.size()));
+						var request = r % 10 == 0
+								? postBooking(baseUri, bookerId, itemIds.get(random.nextInt(itemIds.size())), random.nextInt(100_000))
+								: get(baseUri + "/bookings?size=20", bookerId);
+
+						var began = System.nanoTime();
+						var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+						latencies[clientIndex * REQUESTS_PER_CLIENT + r] = System.nanoTime() - began;
+
+						if (response.statusCode() >= 500)
+							serverErrors.incrementAndGet();
+						else if (request.method().equals("POST") && response.statusCode() == 200)
+							created.incrementAndGet();
+					}
+
+					return null;
+				});
+			}
+
+			long elapsed;
+			try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+				var futures = tasks.stream().map(executor::submit).toList();
+
+				ready.await();
+				var began = System.nanoTime();
+				go.countDown();
+
+				for (var future : futures)
+					future.get();
+
+				elapsed = System.nanoTime() - began;
+			}
+
+			Arrays.sort(latencies);
+
+			log.info("virtualThreads={}, requests={}, created={}, throughput={} req/s, p50={} ms, p99={} ms",
+					virtualThreads,
+					latencies.length,
+					created.get(),
+					latencies.length * 1_000_000_000L / Math.max(1, elapsed),
+					latencies[latencies.length / 2] / 1_000_000.0,
+					latencies[latencies.length * 99 / 100] / 1_000_000.0);
+
+			assertEquals(0, serverErrors.get());
+			assertTrue(created.get() > 0);
+		}
+	}
+
+	private static long createUser(HttpClient client, String baseUri, String name) throws Exception {
+		return postForId(client, HttpRequest.newBuilder(URI.create(baseUri + "/users"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(
+						"{\"name\":\"" + name + "\",\"email\":\"" + name + "@mail.ru\"}"))
+				.build());
+	}
+
+	private static long createItem(HttpClient client, String baseUri, long ownerId, int index) throws Exception {
+		return postForId(client, HttpRequest.newBuilder(URI.create(baseUri + "/items"))
+				.header("Content-Type", "application/json")
+				.header("X-Sharer-User-Id", String.valueOf(ownerId))
+				.POST(HttpRequest.BodyPublishers.ofString(
+						"{\"name\":\"item" + index + "\",\"description\":\"item\",\"available\":true}"))
+				.build());
+	}
+
+	private static long postForId(HttpClient client, HttpRequest request) throws Exception {
+		var body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+		var from = body.indexOf("\"id\":") + 5;
+
+		return Long.parseLong(body.substring(from, body.indexOf(',', from)));
+	}
+
+	private static HttpRequest get(String uri, long userId) {
+		return HttpRequest.newBuilder(URI.create(uri))
+				.header("X-Sharer-User-Id", String.valueOf(userId))
+				.GET()
+				.build();
+	}
+
+	private static HttpRequest postBooking(String baseUri, long bookerId, long itemId, int hourOffset) {
+		var start = LocalDateTime.of(2030, 1, 1, 0, 0).plusHours(hourOffset);
+
+		return HttpRequest.newBuilder(URI.create(baseUri + "/bookings"))
+				.header("Content-Type", "application/json")
+				.header("X-Sharer-User-Id", String.valueOf(bookerId))
+				.POST(HttpRequest.BodyPublishers.ofString(
+						"{\"itemId\":" + itemId + ",\"start\":\"" + start + ":00\",\"end\":\"" + start.plusHours(1) + ":00\"}"))
+				.build();
+	}
+
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.storage.BookingEntity;
+import ru.practicum.shareit.item.storage.ItemEntity;
+import ru.practicum.shareit.user.storage.UserEntity;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Один BookingMapper и один ObjectMapper на все потоки, как в приложении:
+ * каждая бронь должна пройти entity -> dto -> json -> dto -> entity без искажения дат.
+ */
+class BookingMapperConcurrencyTests {
+	private static final int THREADS = 16;
+	private static final int ITERATIONS = 5_000;
+
+	private final BookingMapper bookingMapper = new BookingMapper();
+	private final JsonMapper jsonMapper = JsonMapper.builder().findAndAddModules().build();
+	private final DateTimeFormatter format = DateTimeFormatter.ofPattern(BookingDto.DATE_TIME_PATTERN);
+
+	@Test
+	void roundTripIsStableUnderConcurrency() throws Exception {
+		var user = new UserEntity();
+		user.setId(1L);
+
+		var item = new ItemEntity();
+		item.setId(1L);
+		item.setOwner(user);
+
+		var ready = new CountDownLatch(THREADS);
+		var tasks = new ArrayList<Callable<Void>>();
+
+		for (int t = 0; t < THREADS; t++) {
+			tasks.add(() -> {
+				ready.countDown();
+				ready.await();
+
+				var random = ThreadLocalRandom.current();
+
+				for (int i = 0; i < ITERATIONS; i++) {
+					var start = LocalDateTime.of(2000, 1, 1, 0, 0).plusSeconds(random.nextLong(1_000_000_000L));
+					var end = start.plusSeconds(1 + random.nextInt(1_000_000));
+
+					var entity = new BookingEntity();
+					entity.setId((long) i);
+					entity.setItem(item);
+					entity.setBooker(user);
+					entity.setStatus(BookingStatus.WAITING);
+					entity.setStart(start);
+					entity.setEnd(end);
+
+					var json = jsonMapper.writeValueAsString(bookingMapper.toDto(entity, null, null));
+
+					assertTrue(json.contains("\"start\":\"" + format.format(start) + "\""), json);
+					assertTrue(json.contains("\"end\":\"" + format.format(end) + "\""), json);
+
+					var restored = bookingMapper.toEntity(jsonMapper.readValue(json, BookingDto.class), user, item);
+
+					assertEquals(start, restored.getStart());
+					assertEquals(end, restored.getEnd());
+				}
+
+				return null;
+			});
+		}
+
+		try (var executor = Executors.newFixedThreadPool(THREADS)) {
+			for (var future : executor.invokeAll(tasks))
+				future.get();
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestUsers;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusRequestDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.tool.KeysetCursor;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Пользователи берутся из кэша, прогретого в setUp, поэтому на запрос остается один select.
+ */
+@SpringBootTest
+class BookingQueryCountTests {
+	private static final int BOOKINGS = 20;
+
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private BookingService bookingService;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private long ownerId;
+	private long bookerId;
+	private long bookingId;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		ownerId = TestUsers.create(userService).id();
+		bookerId = TestUsers.create(userService).id();
+
+		var start = LocalDateTime.now().minusDays(BOOKINGS);
+
+		for (int i = 0; i < BOOKINGS; i++) {
+			var item = itemService.createItem(
+					ItemDto.builder().name("item" + i).description("description").available(true).build(),
+					ownerId);
+
+			bookingId = bookingService.createBooking(
+					BookingDto
+							.builder()
+							.itemId(item.id())
+							.start(start.plusDays(i))
+							.end(start.plusDays(i).plusHours(1))
+							.build(),
+					bookerId).id();
+		}
+
+		statistics.clear();
+	}
+
+	@Test
+	void bookerPageIsLoadedWithoutLazyQueries() {
+		var page = bookingService.getItemsForUserId(BookingStatusRequestDto.ALL, bookerId, KeysetCursor.first(), BOOKINGS);
+
+		assertEquals(BOOKINGS, page.bookings().size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void ownerStreamIsLoadedWithoutLazyQueries() {
+		var bookings = bookingService.streamItemsForItemOwnerId(BookingStatusRequestDto.PAST, ownerId).toList();
+
+		assertEquals(BOOKINGS, bookings.size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void singleBookingIsLoadedWithoutLazyQueries() {
+		var booking = bookingService.getBooking(bookingId, ownerId);
+
+		assertEquals(bookerId, booking.booker().id());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestUsers;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Смена статуса брони приходит подписанным владельцу и арендатору, а при переполнении
+ * буфера подписки вытесняются самые старые изменения.
+ */
+@SpringBootTest(properties = "shareit.bookings.stream.buffer-size=2")
+class BookingStreamTests {
+	private static final Duration WAIT = Duration.ofSeconds(1);
+
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private BookingService bookingService;
+
+	@Test
+	void statusChangesArePushedWithDropOldest() throws Exception {
+		var ownerId = TestUsers.create(userService).id();
+		var bookerId = TestUsers.create(userService).id();
+		var itemId = itemService.createItem(
+				ItemDto.builder().name("item").description("description").available(true).build(),
+				ownerId).id();
+
+		var bookingIds = new long[3];
+
+		for (int i = 0; i < bookingIds.length; i++) {
+			bookingIds[i] = bookingService.createBooking(BookingDto
+					.builder()
+					.itemId(itemId)
+					.start(LocalDateTime.now().plusDays(i * 2 + 1).withNano(0))
+					.end(LocalDateTime.now().plusDays(i * 2 + 2).withNano(0))
+					.build(), bookerId).id();
+		}
+
+		var owner = bookingService.subscribe(ownerId);
+		var booker = bookingService.subscribe(bookerId);
+
+		try {
+			bookingService.setBookingStatus(bookingIds[0], true, ownerId);
+
+			var approved = booker.poll(WAIT);
+
+			assertEquals(bookingIds[0], approved.id());
+			assertEquals(BookingStatus.APPROVED, approved.status());
+			assertNull(booker.poll(Duration.ZERO));
+
+			bookingService.setBookingStatus(bookingIds[1], false, ownerId);
+			bookingService.setBookingStatus(bookingIds[2], true, ownerId);
+
+			// у владельца не читались три изменения, в буфере на два осталось два последних
+			assertEquals(bookingIds[1], owner.poll(WAIT).id());
+			assertEquals(bookingIds[2], owner.poll(WAIT).id());
+			assertEquals(1, owner.takeDropped());
+			assertNull(owner.poll(Duration.ZERO));
+		} finally {
+			owner.close();
+			booker.close();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сверяет дерево интервалов с полным перебором на случайных вставках и удалениях.
+ */
+class IntervalTreeTests {
+	private static final int OPERATIONS = 20_000;
+	private static final int RANGE = 10_000;
+
+	@Test
+	void matchesBruteForce() {
+		var random = new Random(42);
+		var tree = new IntervalTree();
+		var intervals = new HashMap<Long, long[]>();
+
+		for (long id = 0; id < OPERATIONS; id++) {
+			if (!intervals.isEmpty() && random.nextInt(3) == 0) {
+				var removed = intervals.keySet().iterator().next();
+				tree.remove(removed, intervals.remove(removed)[1]);
+			} else {
+				var start = random.nextInt(RANGE);
+				var interval = new long[]{id, start, start + 1 + random.nextInt(50)};
+
+				tree.insert(id, interval[1], interval[2]);
+				intervals.put(id, interval);
+			}
+
+			var start = (long) random.nextInt(RANGE);
+			var end = start + 1 + random.nextInt(100);
+
+			var expected = overlapping(intervals, start, end);
+			var actual = new ArrayList<long[]>();
+			tree.collect(start, end, actual);
+
+			assertEquals(!expected.isEmpty(), tree.overlaps(start, end));
+			assertEquals(expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++)
+				assertArrayEquals(expected.get(i), actual.get(i));
+
+			assertEquals(nextStartAfter(intervals, start), tree.nextStartAfter(start));
+			assertEquals(lastEndBefore(intervals, start), tree.lastEndBefore(start));
+		}
+	}
+
+	private static List<long[]> overlapping(Map<Long, long[]> intervals, long start, long end) {
+		return intervals.values()
+				.stream()
+				.filter(i -> i[1] < end && i[2] > start)
+				.sorted(Comparator.<long[]>comparingLong(i -> i[1]).thenComparingLong(i -> i[0]))
+				.toList();
+	}
+
+	private static long nextStartAfter(Map<Long, long[]> intervals, long date) {
+		return intervals.values()
+				.stream()
+				.mapToLong(i -> i[1])
+				.filter(s -> s > date)
+				.min()
+				.orElse(Long.MAX_VALUE);
+	}
+
+	private static long lastEndBefore(Map<Long, long[]> intervals, long date) {
+		return intervals.values()
+				.stream()
+				.mapToLong(i -> i[2])
+				.filter(e -> e < date)
+				.max()
+				.orElse(Long.MIN_VALUE);
+	}
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestUsers;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.tool.KeysetCursor;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Комментариев больше, чем хранится в представлении вещи: проверяются полный список,
+ * последние N и постраничный обход от новых к старым.
+ */
+@SpringBootTest(properties = "shareit.items.view-comments=5")
+class ItemCommentsTests {
+	private static final int COMMENTS = 12;
+
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private BookingService bookingService;
+
+	private long itemId;
+
+	@BeforeEach
+	void setUp() {
+		var ownerId = TestUsers.create(userService).id();
+		var bookerId = TestUsers.create(userService).id();
+
+		itemId = itemService.createItem(
+				ItemDto.builder().name("item").description("description").available(true).build(),
+				ownerId).id();
+
+		bookingService.createBooking(BookingDto
+				.builder()
+				.itemId(itemId)
+				.start(LocalDateTime.now().minusDays(2).withNano(0))
+				.end(LocalDateTime.now().minusDays(1).withNano(0))
+				.build(), bookerId);
+
+		for (int i = 0; i < COMMENTS; i++)
+			itemService.addComment(CommentDto.builder().text("comment" + i).build(), itemId, bookerId);
+	}
+
+	@Test
+	void itemReturnsAllOrLatestComments() {
+		var all = itemService.getItem(itemId).comments();
+
+		assertEquals(COMMENTS, all.size());
+		assertEquals("comment0", all.get(0).text());
+
+		for (int latest : new int[] {3, 8}) {
+			var comments = itemService.getItem(itemId, Optional.empty(), Optional.of(latest)).comments();
+
+			assertEquals(all.subList(COMMENTS - latest, COMMENTS), comments);
+		}
+	}
+
+	@Test
+	void commentsArePagedFromNewest() {
+		var texts = new ArrayList<String>();
+		var cursor = KeysetCursor.first();
+
+		while (true) {
+			var page = itemService.getComments(itemId, cursor, 5);
+
+			assertTrue(page.comments().size() <= 5);
+			page.comments().forEach(c -> texts.add(c.text()));
+
+			if (page.next().isEmpty())
+				break;
+
+			cursor = KeysetCursor.decode(page.next().get().encode());
+		}
+
+		assertEquals(COMMENTS, texts.size());
+
+		for (int i = 0; i < COMMENTS; i++)
+			assertEquals("comment" + (COMMENTS - 1 - i), texts.get(i));
+	}
+}
@@ -0,0 +1,151 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestUsers;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.view.ItemViewProjection;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserToUpdateDto;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Вещь и список вещей владельца после первого чтения отдаются из представлений без запросов в БД,
+ * а изменения видны сразу после коммита. Последние комментарии популярных вещей
+ * загружаются одним запросом на весь список.
+ */
+@SpringBootTest
+class ItemViewTests {
+	private static final int ITEMS = 5;
+	// shareit.items.view-comments по умолчанию
+	private static final int VIEW_COMMENTS = 20;
+
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private BookingService bookingService;
+	@Autowired
+	private ItemViewProjection itemViews;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private long ownerId;
+	private long bookerId;
+	private long itemId;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		ownerId = TestUsers.create(userService).id();
+		bookerId = TestUsers.create(userService).id();
+
+		for (int i = 0; i < ITEMS; i++) {
+			itemId = itemService.createItem(
+					ItemDto.builder().name("item" + i).description("description").available(true).build(),
+					ownerId).id();
+		}
+
+		bookingService.createBooking(BookingDto
+				.builder()
+				.itemId(itemId)
+				.start(LocalDateTime.now().minusDays(2).withNano(0))
+				.end(LocalDateTime.now().minusDays(1).withNano(0))
+				.build(), bookerId);
+
+		itemService.addComment(CommentDto.builder().text("отлично").build(), itemId, bookerId);
+	}
+
+	@Test
+	void warmReadsDoNotQueryDatabase() {
+		itemService.getItem(itemId, Optional.of(ownerId));
+		itemService.getItems(ownerId);
+
+		statistics.clear();
+
+		var item = itemService.getItem(itemId, Optional.of(ownerId));
+		var items = itemService.getItems(ownerId);
+
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertEquals(1, item.comments().size());
+		assertNotNull(item.lastBooking());
+		assertEquals(ITEMS, items.size());
+		assertEquals(item, items.get(ITEMS - 1));
+	}
+
+	@Test
+	void changesAreVisibleAfterCommit() {
+		itemService.getItem(itemId);
+
+		itemService.addComment(CommentDto.builder().text("еще раз").build(), itemId, bookerId);
+		userService.updateUser(bookerId, UserToUpdateDto.builder().name("renamed").build());
+
+		var comments = itemService.getItem(itemId).comments();
+
+		assertEquals(2, comments.size());
+		assertEquals("renamed", comments.get(0).authorName());
+		assertEquals("renamed", comments.get(1).authorName());
+
+		itemService.deleteItem(itemService.getItems(ownerId).get(0).id(), ownerId);
+
+		assertEquals(ITEMS - 1, itemService.getItems(ownerId).size());
+	}
+
+	@Test
+	void latestCommentsOfOwnerItemsAreLoadedTogether() {
+		assertEquals(coldOwnerListStatements(1), coldOwnerListStatements(ITEMS));
+	}
+
+	private long coldOwnerListStatements(int popularItems) {
+		var popularOwnerId = TestUsers.create(userService).id();
+
+		for (int i = 0; i < popularItems; i++) {
+			var popularItemId = itemService.createItem(
+					ItemDto.builder().name("popular" + i).description("description").available(true).build(),
+					popularOwnerId).id();
+
+			bookingService.createBooking(BookingDto
+					.builder()
+					.itemId(popularItemId)
+					.start(LocalDateTime.now().minusDays(2).withNano(0))
+					.end(LocalDateTime.now().minusDays(1).withNano(0))
+					.build(), bookerId);
+
+			for (int j = 0; j <= VIEW_COMMENTS; j++)
+				itemService.addComment(CommentDto.builder().text("comment" + j).build(), popularItemId, bookerId);
+		}
+
+		statistics.clear();
+
+		var items = itemService.getItems(popularOwnerId);
+		var statements = statistics.getPrepareStatementCount();
+
+		assertEquals(popularItems, items.size());
+
+		for (var itemView : itemViews.getForOwner(popularOwnerId)) {
+			var latest = itemView.latestComments();
+
+			assertEquals(VIEW_COMMENTS, latest.size());
+			assertEquals("comment1", latest.get(0).text());
+			assertEquals("comment" + VIEW_COMMENTS, latest.get(VIEW_COMMENTS - 1).text());
+		}
+
+		return statements;
+	}
+}
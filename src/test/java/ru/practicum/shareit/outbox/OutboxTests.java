@@ -0,0 +1,87 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestUsers;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStatusChanged;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Смена статуса брони пишет событие в outbox, диспетчер доставляет его получателю в памяти
+ * и удаляет из таблицы.
+ */
+@SpringBootTest
+class OutboxTests {
+	private static final long TIMEOUT_MILLIS = 5_000;
+
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private BookingService bookingService;
+	@Autowired
+	private InMemoryOutboxSink outboxSink;
+	@Autowired
+	private OutboxRepository outboxRepository;
+	@Autowired
+	private MeterRegistry meterRegistry;
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void statusChangeIsDelivered() throws Exception {
+		var ownerId = TestUsers.create(userService).id();
+		var bookerId = TestUsers.create(userService).id();
+		var itemId = itemService.createItem(
+				ItemDto.builder().name("item").description("description").available(true).build(),
+				ownerId).id();
+		var bookingId = bookingService.createBooking(BookingDto
+				.builder()
+				.itemId(itemId)
+				.start(LocalDateTime.now().plusDays(1).withNano(0))
+				.end(LocalDateTime.now().plusDays(2).withNano(0))
+				.build(), bookerId).id();
+
+		bookingService.setBookingStatus(bookingId, true, ownerId);
+
+		// пачка удаляется из таблицы и попадает в метрики после коммита, уже после передачи получателю
+		await(() -> meterRegistry.get("shareit.outbox.dispatched").counter().count() >= 1
+				&& outboxRepository.count() == 0);
+
+		var events = outboxSink.getEvents()
+				.stream()
+				.filter(e -> e.aggregateId() == bookingId)
+				.toList();
+
+		assertEquals(1, events.size());
+		assertEquals(BookingStatusChanged.TYPE, events.get(0).type());
+		assertEquals(
+				new BookingStatusChanged(bookingId, itemId, ownerId, bookerId, BookingStatus.APPROVED),
+				objectMapper.readValue(events.get(0).payload(), BookingStatusChanged.class));
+	}
+
+	private void await(BooleanSupplier condition) throws InterruptedException {
+		var deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline)
+				throw new AssertionError("Событие не доставлено за " + TIMEOUT_MILLIS + " мс");
+
+			Thread.sleep(20);
+		}
+	}
+}
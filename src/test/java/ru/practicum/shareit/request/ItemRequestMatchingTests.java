@@ -0,0 +1,113 @@
+package ru.practicum.shareit.request;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestUsers;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemToUpdateDto;
+import ru.practicum.shareit.outbox.InMemoryOutboxSink;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Новая вещь сопоставляется с открытыми чужими запросами в фоне, совпадение уходит в outbox
+ * один раз на пару запрос-вещь. Закрытые и собственные запросы владельца не учитываются.
+ */
+@SpringBootTest
+class ItemRequestMatchingTests {
+	private static final long TIMEOUT_MILLIS = 5_000;
+
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private ItemRequestService itemRequestService;
+	@Autowired
+	private InMemoryOutboxSink outboxSink;
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void newItemsAreMatchedWithOpenRequests() throws Exception {
+		var requestorId = TestUsers.create(userService).id();
+		var ownerId = TestUsers.create(userService).id();
+
+		var openId = createRequest("Нужна ударная дрель", requestorId);
+		var closedId = createRequest("Ищу ударную дрель", requestorId);
+		var ownId = createRequest("Ударная дрель", ownerId);
+
+		assertTrue(itemRequestService.closeRequest(closedId, requestorId).closed());
+
+		var firstId = createItem("Дрель", "Ударная дрель Bosch", ownerId);
+
+		itemService.updateItem(firstId, ItemToUpdateDto.builder().description("Ударная дрель Makita").build(), ownerId);
+
+		var secondId = createItem("Дрель ударная", "почти новая", ownerId);
+
+		createItem("Велосипед", "горный", ownerId);
+
+		// очередь разбирается по порядку, поэтому к совпадению со второй вещью обработано и все предыдущее
+		var matches = await(() -> {
+			var found = matches(Set.of(openId, closedId, ownId));
+
+			return found.stream().anyMatch(m -> m.itemId() == secondId) ? found : null;
+		});
+
+		assertEquals(
+				List.of(
+						new ItemRequestMatched(openId, requestorId, firstId, ownerId),
+						new ItemRequestMatched(openId, requestorId, secondId, ownerId)),
+				matches);
+	}
+
+	private List<ItemRequestMatched> matches(Set<Long> requestIds) {
+		return outboxSink.getEvents()
+				.stream()
+				.filter(e -> e.type().equals(ItemRequestMatched.TYPE) && requestIds.contains(e.aggregateId()))
+				.map(e -> {
+					try {
+						return objectMapper.readValue(e.payload(), ItemRequestMatched.class);
+					} catch (Exception ex) {
+						throw new IllegalStateException(ex);
+					}
+				})
+				.toList();
+	}
+
+	private <T> T await(Supplier<T> condition) throws InterruptedException {
+		var deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+
+		while (true) {
+			var result = condition.get();
+
+			if (result != null)
+				return result;
+
+			if (System.currentTimeMillis() > deadline)
+				throw new AssertionError("Совпадение не доставлено за " + TIMEOUT_MILLIS + " мс");
+
+			Thread.sleep(20);
+		}
+	}
+
+	private long createRequest(String description, long userId) {
+		return itemRequestService.createRequest(ItemRequestDto.builder().description(description).build(), userId).id();
+	}
+
+	private long createItem(String name, String description, long ownerId) {
+		return itemService.createItem(
+				ItemDto.builder().name(name).description(description).available(true).build(),
+				ownerId).id();
+	}
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.request;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestUsers;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.tool.KeysetCursor;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Лента чужих запросов обходится курсором от новых к старым, ответы прикладываются
+ * одним запросом на страницу.
+ */
+@SpringBootTest
+class ItemRequestTests {
+	private static final int REQUESTS = 7;
+	private static final int PAGE_SIZE = 3;
+
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private ItemRequestService itemRequestService;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void feedIsPagedWithAnswers() {
+		var requestorId = TestUsers.create(userService).id();
+		var ownerId = TestUsers.create(userService).id();
+		var readerId = TestUsers.create(userService).id();
+
+		var requestIds = new ArrayList<Long>();
+
+		for (int i = 0; i < REQUESTS; i++) {
+			var request = itemRequestService.createRequest(
+					ItemRequestDto.builder().description("request" + i).build(),
+					requestorId);
+
+			requestIds.add(request.id());
+
+			itemService.createItem(
+					ItemDto.builder().name("answer" + i).description("description").available(true)
+							.requestId(request.id()).build(),
+					ownerId);
+		}
+
+		itemRequestService.createRequest(ItemRequestDto.builder().description("own").build(), readerId);
+
+		var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		var found = new ArrayList<ItemRequestDto>();
+		var cursor = KeysetCursor.first();
+
+		while (true) {
+			statistics.clear();
+
+			var page = itemRequestService.getOtherRequests(readerId, cursor, PAGE_SIZE);
+
+			// страница запросов и вещи-ответы на нее
+			assertTrue(statistics.getPrepareStatementCount() <= 2);
+
+			found.addAll(page.requests());
+
+			if (page.next().isEmpty())
+				break;
+
+			cursor = KeysetCursor.decode(page.next().get().encode());
+		}
+
+		var ours = found
+				.stream()
+				.filter(r -> requestIds.contains(r.id()))
+				.toList();
+
+		assertEquals(REQUESTS, ours.size());
+		assertEquals(requestIds.reversed(), ours.stream().map(ItemRequestDto::id).toList());
+		assertTrue(found.stream().noneMatch(r -> r.description().equals("own")));
+
+		for (var request : ours) {
+			assertEquals(1, request.items().size());
+			assertEquals(ownerId, request.items().get(0).ownerId());
+			assertEquals("answer" + request.description().substring("request".length()), request.items().get(0).name());
+		}
+
+		var own = itemRequestService.getOwnRequests(requestorId);
+
+		assertEquals(requestIds.reversed(), own.stream().map(ItemRequestDto::id).toList());
+		assertEquals(
+				List.of(ownerId),
+				itemRequestService.getRequest(requestIds.get(0), readerId).items().stream()
+						.map(i -> i.ownerId())
+						.toList());
+	}
+}